@@ -1,5 +1,8 @@
 package com.feritbilgi.customer_service.config;
 
+import com.feritbilgi.shared.config.HttpClientPoolProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,4 +22,20 @@ public class WebClientConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    @Bean
+    @ConfigurationProperties("http.client.keycloak")
+    public HttpClientPoolProperties keycloakClientPool() {
+        return new HttpClientPoolProperties();
+    }
+
+    // Keycloak is not registered in Eureka, so this client is built without the load balancer
+    @Bean
+    public WebClient keycloakWebClient(@Value("${keycloak.auth-server-url}") String keycloakUrl,
+                                       HttpClientPoolProperties keycloakClientPool) {
+        return WebClient.builder()
+                .baseUrl(keycloakUrl)
+                .clientConnector(keycloakClientPool.createConnector("keycloak"))
+                .build();
+    }
 }
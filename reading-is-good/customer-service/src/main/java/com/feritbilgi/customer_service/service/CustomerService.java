@@ -23,7 +23,7 @@ import java.util.stream.Collectors;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient keycloakWebClient;
 
     @LogOperation(operation = "CUSTOMER_CREATED", description = "Yeni müşteri oluşturuldu")
     public CustomerResponse createCustomer(CustomerRequest customerRequest) {
@@ -192,9 +192,9 @@ public class CustomerService {
                 ))
             );
             
-            String response = webClientBuilder.build()
+            String response = keycloakWebClient
                     .post()
-                    .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/users")
+                    .uri("/admin/realms/spring-boot-microservices-realm/users")
                     .header("Authorization", "Bearer " + adminToken)
                     .header("Content-Type", "application/json")
                     .bodyValue(userRepresentation)
@@ -265,9 +265,9 @@ public class CustomerService {
 
     private String getAdminToken() {
         try {
-            String response = webClientBuilder.build()
+            String response = keycloakWebClient
                     .post()
-                    .uri("http://localhost:8181/realms/master/protocol/openid-connect/token")
+                    .uri("/realms/master/protocol/openid-connect/token")
                     .header("Content-Type", "application/x-www-form-urlencoded")
                     .bodyValue("grant_type=password&client_id=admin-cli&username=admin&password=admin")
                     .retrieve()
@@ -290,9 +290,9 @@ public class CustomerService {
 
     private String getUserIdByEmail(String adminToken, String email) {
         try {
-            String response = webClientBuilder.build()
+            String response = keycloakWebClient
                     .get()
-                    .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/users?email=" + email)
+                    .uri("/admin/realms/spring-boot-microservices-realm/users?email=" + email)
                     .header("Authorization", "Bearer " + adminToken)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -318,9 +318,9 @@ public class CustomerService {
     private void createRoleIfNotExists(String adminToken, String roleName) {
         try {
             // Check if role exists
-            webClientBuilder.build()
+            keycloakWebClient
                     .get()
-                    .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/roles/" + roleName)
+                    .uri("/admin/realms/spring-boot-microservices-realm/roles/" + roleName)
                     .header("Authorization", "Bearer " + adminToken)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -337,9 +337,9 @@ public class CustomerService {
                 "description", roleName + " role for microservices"
             );
             
-            webClientBuilder.build()
+            keycloakWebClient
                     .post()
-                    .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/roles")
+                    .uri("/admin/realms/spring-boot-microservices-realm/roles")
                     .header("Authorization", "Bearer " + adminToken)
                     .header("Content-Type", "application/json")
                     .bodyValue(roleRepresentation)
@@ -354,9 +354,9 @@ public class CustomerService {
     private void assignRoleToUser(String adminToken, String userId, String roleName) {
         try {
             // First, get the role ID
-            String roleResponse = webClientBuilder.build()
+            String roleResponse = keycloakWebClient
                     .get()
-                    .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/roles/" + roleName)
+                    .uri("/admin/realms/spring-boot-microservices-realm/roles/" + roleName)
                     .header("Authorization", "Bearer " + adminToken)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -375,9 +375,9 @@ public class CustomerService {
                 );
                 
                 // Assign role to user
-                webClientBuilder.build()
+                keycloakWebClient
                         .post()
-                        .uri("http://localhost:8181/admin/realms/spring-boot-microservices-realm/users/" + userId + "/role-mappings/realm")
+                        .uri("/admin/realms/spring-boot-microservices-realm/users/" + userId + "/role-mappings/realm")
                         .header("Authorization", "Bearer " + adminToken)
                         .header("Content-Type", "application/json")
                         .bodyValue(List.of(roleRepresentation))
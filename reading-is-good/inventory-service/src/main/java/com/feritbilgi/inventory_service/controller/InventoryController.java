@@ -1,13 +1,21 @@
 package com.feritbilgi.inventory_service.controller;
 
+import com.feritbilgi.inventory_service.dto.StockReservationRequest;
+import com.feritbilgi.inventory_service.dto.StockReservationResponse;
+import com.feritbilgi.inventory_service.dto.TryReserveRequest;
+import com.feritbilgi.inventory_service.dto.TryReserveResponse;
 import com.feritbilgi.inventory_service.model.Inventory;
+import com.feritbilgi.inventory_service.service.HotStockLedger;
 import com.feritbilgi.inventory_service.service.InventoryService;
+import com.feritbilgi.inventory_service.service.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -16,6 +24,8 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockReservationService stockReservationService;
+    private final HotStockLedger hotStockLedger;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -31,6 +41,14 @@ public class InventoryController {
         return inventoryService.getInventoryBySkuCodes(skuCode);
     }
 
+    // Body variant of the search for baskets whose SKU list does not fit in a URL
+    @PostMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public List<Inventory> searchInventory(@RequestBody List<String> skuCodes) {
+        log.info("Getting inventory for {} skuCodes", skuCodes.size());
+        return inventoryService.getInventoryBySkuCodes(skuCodes);
+    }
+
     @GetMapping("/{skuCode}")
     @ResponseStatus(HttpStatus.OK)
     public Inventory getInventoryBySkuCode(@PathVariable String skuCode) {
@@ -52,4 +70,87 @@ public class InventoryController {
         inventoryService.updateStock(skuCode, quantity);
         return "Stock updated successfully";
     }
-} 
\ No newline at end of file
+
+    @PutMapping("/{skuCode}/reserve")
+    @ResponseStatus(HttpStatus.OK)
+    public StockReservationResponse reserve(@PathVariable String skuCode, @RequestParam int quantity) {
+        log.info("Reserving stock for skuCode: {}, quantity: {}", skuCode, quantity);
+        return inventoryService.reserve(skuCode, quantity);
+    }
+
+    @PostMapping("/reserve")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockReservationResponse> reserveStock(@RequestBody List<StockReservationRequest> reservationRequests) {
+        log.info("Reserving stock for {} items", reservationRequests.size());
+        return inventoryService.reserveStock(reservationRequests);
+    }
+
+    @PostMapping("/try-reserve")
+    @ResponseStatus(HttpStatus.OK)
+    public TryReserveResponse tryReserve(@RequestBody TryReserveRequest tryReserveRequest) {
+        log.info("Trying to reserve stock for order: {}", tryReserveRequest.getOrderNumber());
+        return stockReservationService.tryReserve(tryReserveRequest);
+    }
+
+    @PostMapping("/try-reserve/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    public List<TryReserveResponse> tryReserveAll(@RequestBody List<TryReserveRequest> tryReserveRequests) {
+        log.info("Trying to reserve stock for {} orders", tryReserveRequests.size());
+        return stockReservationService.tryReserveAll(tryReserveRequests);
+    }
+
+    // Quantities are deltas: positive ones are reserved on top, negative ones are given back
+    @PostMapping("/reservations/{orderNumber}/adjust")
+    @ResponseStatus(HttpStatus.OK)
+    public TryReserveResponse adjustReservation(@PathVariable String orderNumber, @RequestBody List<StockReservationRequest> deltas) {
+        log.info("Adjusting stock reservation for order: {}, {} skuCodes", orderNumber, deltas.size());
+        return stockReservationService.adjust(orderNumber, deltas);
+    }
+
+    // 409 tells the order-service outbox that retrying cannot help: the hold expired and the stock is gone
+    @PostMapping("/reservations/{orderNumber}/commit")
+    public ResponseEntity<String> commitReservation(@PathVariable String orderNumber) {
+        log.info("Committing stock reservation for order: {}", orderNumber);
+        if (!stockReservationService.commit(orderNumber)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Reservation expired and the stock is no longer available");
+        }
+        return ResponseEntity.ok("Reservation committed successfully");
+    }
+
+    @PostMapping("/reservations/{orderNumber}/release")
+    @ResponseStatus(HttpStatus.OK)
+    public String releaseReservation(@PathVariable String orderNumber) {
+        log.info("Releasing stock reservation for order: {}", orderNumber);
+        stockReservationService.release(orderNumber);
+        return "Reservation released successfully";
+    }
+
+    @GetMapping("/ledger")
+    @ResponseStatus(HttpStatus.OK)
+    public Set<String> getLedgerSkuCodes() {
+        return hotStockLedger.trackedSkus();
+    }
+
+    @PutMapping("/ledger/{skuCode}")
+    @ResponseStatus(HttpStatus.OK)
+    public String enableLedger(@PathVariable String skuCode) {
+        log.info("Enabling in-memory stock ledger for skuCode: {}", skuCode);
+        hotStockLedger.enable(skuCode);
+        return "Ledger enabled successfully";
+    }
+
+    @DeleteMapping("/ledger/{skuCode}")
+    @ResponseStatus(HttpStatus.OK)
+    public String disableLedger(@PathVariable String skuCode) {
+        log.info("Disabling in-memory stock ledger for skuCode: {}", skuCode);
+        hotStockLedger.disable(skuCode);
+        return "Ledger disabled successfully";
+    }
+
+    // Invalid reservation input (e.g. a non-positive quantity) is the caller's fault, not a server error
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+}
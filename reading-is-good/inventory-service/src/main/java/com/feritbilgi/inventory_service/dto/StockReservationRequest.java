@@ -1,17 +1,15 @@
-package com.feritbilgi.statistics_service.dto;
+package com.feritbilgi.inventory_service.dto;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class OrderLineItemResponse {
-    private Long id;
+@Builder
+public class StockReservationRequest {
     private String skuCode;
-    private BigDecimal price;
     private Integer quantity;
 }
@@ -0,0 +1,18 @@
+package com.feritbilgi.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservationResponse {
+    private String skuCode;
+    private Integer requestedQuantity;
+    private Integer remainingQuantity; // Quantity left after this reservation (or current quantity if not reserved)
+    private boolean reserved;
+    private String message;
+}
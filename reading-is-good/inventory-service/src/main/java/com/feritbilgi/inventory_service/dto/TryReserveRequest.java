@@ -0,0 +1,17 @@
+package com.feritbilgi.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TryReserveRequest {
+    private String orderNumber;
+    private List<StockReservationRequest> items;
+}
@@ -0,0 +1,20 @@
+package com.feritbilgi.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TryReserveResponse {
+    private boolean reserved;
+    private String reservationId; // Set only when every item is reserved
+    private LocalDateTime expiresAt; // Hold is given back automatically unless committed before this
+    private List<String> shortSkuCodes; // SKUs that are missing or do not have enough stock
+}
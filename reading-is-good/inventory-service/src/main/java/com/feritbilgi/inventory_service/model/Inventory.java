@@ -31,6 +31,9 @@ public class Inventory {
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version; // Concurrent stock updates fail instead of overwriting each other
     
     @PrePersist
     public void setStatusBeforePersist() {  //Obje oluşturulduğunda @Entity'de otomatik tetikleniyor.
@@ -3,5 +3,14 @@ package com.feritbilgi.inventory_service.model;
 public enum InventoryStatus {
     IN_STOCK,
     OUT_OF_STOCK,
-    LOW_STOCK
+    LOW_STOCK;
+
+    public static InventoryStatus forQuantity(int quantity) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        } else if (quantity < 10) {
+            return LOW_STOCK;
+        }
+        return IN_STOCK;
+    }
 } 
\ No newline at end of file
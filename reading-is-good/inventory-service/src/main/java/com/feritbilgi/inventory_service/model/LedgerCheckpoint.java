@@ -0,0 +1,26 @@
+package com.feritbilgi.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "t_inventory_ledger_checkpoint")
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerCheckpoint {
+    @Id
+    @Column(name = "node_id")
+    private String nodeId; // One row per inventory instance that runs a ledger
+
+    @Column(name = "last_flushed_segment")
+    private Long lastFlushedSegment; // Journal segments up to this one are already in t_inventory
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.feritbilgi.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "t_inventory_ledger_owner")
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerOwner {
+    @Id
+    @Column(name = "sku_code")
+    private String skuCode; // A SKU can be kept in the ledger of one instance only
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+}
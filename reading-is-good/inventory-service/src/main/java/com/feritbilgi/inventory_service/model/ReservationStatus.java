@@ -0,0 +1,8 @@
+package com.feritbilgi.inventory_service.model;
+
+public enum ReservationStatus {
+    HELD,      // Stock is taken out, waiting for commit until expiresAt
+    COMMITTED, // Order went through, stock stays reduced
+    RELEASED,  // Stock given back by the order service (e.g. cancelled order)
+    EXPIRED    // Stock given back by the sweeper because the hold timed out
+}
@@ -0,0 +1,45 @@
+package com.feritbilgi.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Entity
+@Table(name = "t_stock_reservation", indexes = {
+        // Sweeper walks only the HELD rows in expiry order, never the whole table
+        @Index(name = "idx_reservation_status_expires_at", columnList = "status, expires_at")
+})
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_number", unique = true, nullable = false)
+    private String orderNumber;
+
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JoinColumn(name = "reservation_id", nullable = false)
+    @BatchSize(size = 500)
+    private List<StockReservationLine> lines;
+
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
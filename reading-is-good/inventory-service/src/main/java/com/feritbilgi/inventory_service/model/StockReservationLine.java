@@ -0,0 +1,23 @@
+package com.feritbilgi.inventory_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "t_stock_reservation_line")
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservationLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sku_code")
+    private String skuCode;
+
+    private Integer quantity;
+}
@@ -0,0 +1,6 @@
+package com.feritbilgi.inventory_service.model;
+
+public enum StockReservationMode {
+    CONDITIONAL, // Single UPDATE ... WHERE quantity >= requested, no entity load
+    OPTIMISTIC   // Load, check and save guarded by the @Version column, retried on conflict
+}
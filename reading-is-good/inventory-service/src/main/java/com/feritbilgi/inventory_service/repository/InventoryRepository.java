@@ -2,8 +2,13 @@ package com.feritbilgi.inventory_service.repository;
 
 import com.feritbilgi.inventory_service.model.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +16,25 @@ import java.util.Optional;
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findBySkuCode(String skuCode);
     List<Inventory> findBySkuCodeIn(List<String> skuCodes);
-} 
\ No newline at end of file
+
+    // Check and decrement in one statement; returns 0 when the stock is not enough, so it never goes negative.
+    // A non-positive quantity never matches, otherwise "decrementing" by -n would add stock
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Inventory i set i.quantity = i.quantity - :quantity, i.version = i.version + 1, i.updatedAt = :updatedAt, " +
+            "i.status = case when i.quantity - :quantity <= 0 then com.feritbilgi.inventory_service.model.InventoryStatus.OUT_OF_STOCK " +
+            "when i.quantity - :quantity < 10 then com.feritbilgi.inventory_service.model.InventoryStatus.LOW_STOCK " +
+            "else com.feritbilgi.inventory_service.model.InventoryStatus.IN_STOCK end " +
+            "where i.skuCode = :skuCode and :quantity > 0 and i.quantity >= :quantity")
+    int decrementIfAvailable(@Param("skuCode") String skuCode, @Param("quantity") int quantity, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Gives stock back (released/expired reservations), status follows the new quantity
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Inventory i set i.quantity = i.quantity + :quantity, i.version = i.version + 1, i.updatedAt = :updatedAt, " +
+            "i.status = case when i.quantity + :quantity <= 0 then com.feritbilgi.inventory_service.model.InventoryStatus.OUT_OF_STOCK " +
+            "when i.quantity + :quantity < 10 then com.feritbilgi.inventory_service.model.InventoryStatus.LOW_STOCK " +
+            "else com.feritbilgi.inventory_service.model.InventoryStatus.IN_STOCK end " +
+            "where i.skuCode = :skuCode")
+    int incrementQuantity(@Param("skuCode") String skuCode, @Param("quantity") int quantity, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,9 @@
+package com.feritbilgi.inventory_service.repository;
+
+import com.feritbilgi.inventory_service.model.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+}
@@ -0,0 +1,9 @@
+package com.feritbilgi.inventory_service.repository;
+
+import com.feritbilgi.inventory_service.model.LedgerOwner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerOwnerRepository extends JpaRepository<LedgerOwner, String> {
+}
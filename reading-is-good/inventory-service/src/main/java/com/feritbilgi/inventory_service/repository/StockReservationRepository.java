@@ -0,0 +1,46 @@
+package com.feritbilgi.inventory_service.repository;
+
+import com.feritbilgi.inventory_service.model.ReservationStatus;
+import com.feritbilgi.inventory_service.model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    Optional<StockReservation> findByOrderNumber(String orderNumber);
+    List<StockReservation> findByOrderNumberIn(Collection<String> orderNumbers);
+
+    // Serializes adjustments with commit/release of the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.orderNumber = :orderNumber")
+    Optional<StockReservation> findForUpdateByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    // Served by idx_reservation_status_expires_at
+    @Query("select r.id from StockReservation r where r.status = :status and r.expiresAt < :now order by r.expiresAt")
+    List<Long> findIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    // Row locks keep a concurrent commit/release from racing with the sweeper
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByIdInAndStatus(Collection<Long> ids, ReservationStatus status);
+
+    @Modifying
+    @Query("update StockReservation r set r.status = :newStatus, r.updatedAt = :now where r.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("newStatus") ReservationStatus newStatus, @Param("now") LocalDateTime now);
+
+    // Only moves the reservation when it is still in one of the expected states; returns 0 otherwise
+    @Modifying
+    @Query("update StockReservation r set r.status = :newStatus, r.updatedAt = :now where r.orderNumber = :orderNumber and r.status in :expected")
+    int transitionStatus(@Param("orderNumber") String orderNumber, @Param("expected") Collection<ReservationStatus> expected,
+                         @Param("newStatus") ReservationStatus newStatus, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,440 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.model.Inventory;
+import com.feritbilgi.inventory_service.model.InventoryStatus;
+import com.feritbilgi.inventory_service.model.LedgerCheckpoint;
+import com.feritbilgi.inventory_service.model.LedgerOwner;
+import com.feritbilgi.inventory_service.repository.InventoryRepository;
+import com.feritbilgi.inventory_service.repository.LedgerCheckpointRepository;
+import com.feritbilgi.inventory_service.repository.LedgerOwnerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the stock of hot SKUs in memory so reads and reservations do not hit the database.
+ * Every change is written to a local journal first and the summed deltas are flushed to
+ * t_inventory in one transaction every flush interval. SKUs are switched on one by one;
+ * while a SKU is tracked here, this instance is the owner of its stock. Ownership is claimed
+ * in t_inventory_ledger_owner, so two instances cannot track the same SKU, and the other
+ * instances refuse to change that SKU in the table until the owner has flushed and let go.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockLedger {
+
+    public enum ReserveResult {
+        RESERVED,
+        INSUFFICIENT,
+        NOT_TRACKED // Caller should fall back to the database path
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final LedgerOwnerRepository ledgerOwnerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.ledger.hot-skus:}")
+    private List<String> configuredHotSkus;
+
+    @Value("${inventory.ledger.journal-dir:${java.io.tmpdir}/inventory-ledger}")
+    private String journalDirectory;
+
+    @Value("${inventory.ledger.journal-fsync:false}")
+    private boolean journalFsync;
+
+    @Value("${inventory.ledger.node-id:}")
+    private String nodeId;
+
+    @Value("${spring.application.name:}")
+    private String applicationName;
+
+    private final Map<String, LedgerEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> retiredDeltas = new HashMap<>(); // Unflushed deltas of SKUs switched off, guarded by the write lock
+    private final Set<String> releasedOwnerships = new HashSet<>(); // Switched off, ownership row goes with the next flush; write lock
+    // Changes share the read lock (the counters themselves are lock-free); flush and switching take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong oldestUnflushedChangeNanos = new AtomicLong();
+
+    private volatile StockLedgerJournal journal;
+    private volatile Map<String, String> foreignOwners = Map.of(); // SKU -> node id of the other instance that tracks it
+    private Timer flushTimer;
+
+    private static class LedgerEntry {
+        private final Inventory base; // Row as it was when tracking started, for the fields that do not change
+        private final AtomicInteger available;
+        private final LongAdder pendingDelta = new LongAdder();
+        private volatile boolean retired;
+
+        private LedgerEntry(Inventory base) {
+            this.base = base;
+            this.available = new AtomicInteger(base.getQuantity());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // A node id shared by two instances lets both own the same SKU and mixes up their checkpoints
+        if (nodeId == null || nodeId.isBlank() || nodeId.equals(applicationName)) {
+            throw new IllegalStateException("inventory.ledger.node-id must be unique per instance when the ledger is enabled, got '"
+                    + nodeId + "'");
+        }
+        flushTimer = Timer.builder("inventory.ledger.flush").description("Time to write ledger deltas to t_inventory").register(meterRegistry);
+        Gauge.builder("inventory.ledger.flush.lag", this, ledger -> ledger.flushLagSeconds())
+                .description("Age of the oldest stock change not yet written to t_inventory")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.pending.skus", entries, map -> map.values().stream().filter(entry -> entry.pendingDelta.sum() != 0).count())
+                .description("Tracked SKUs with unflushed changes")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.tracked.skus", entries, Map::size).register(meterRegistry);
+
+        // One directory per node, so two instances on the same host never replay each other's segments
+        Path nodeJournalDirectory = Path.of(journalDirectory).resolve(nodeId);
+        StockLedgerJournal startingJournal = new StockLedgerJournal(nodeJournalDirectory, journalFsync);
+        long lastSegment = recover(startingJournal);
+        startingJournal.open(lastSegment + 1);
+        journal = startingJournal; // Scheduled flushes start working from here on
+
+        configuredHotSkus.stream().filter(skuCode -> !skuCode.isBlank()).forEach(skuCode -> {
+            try {
+                enable(skuCode);
+            } catch (RuntimeException e) {
+                log.warn("Hot stock ledger not enabled for skuCode {}: {}", skuCode, e.getMessage());
+            }
+        });
+        log.info("Hot stock ledger started as node {} with journal {}", nodeId, nodeJournalDirectory);
+    }
+
+    public boolean isTracked(String skuCode) {
+        return enabled && entries.containsKey(skuCode);
+    }
+
+    public Set<String> trackedSkus() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    // Node id of the other instance whose ledger keeps this SKU; null when it is free or tracked here
+    public String foreignOwner(String skuCode) {
+        return foreignOwners.get(skuCode);
+    }
+
+    // Null when the SKU is not tracked
+    public Integer available(String skuCode) {
+        LedgerEntry entry = entries.get(skuCode);
+        return entry == null ? null : entry.available.get();
+    }
+
+    // Current view of a tracked SKU without touching the table; null when the SKU is not tracked
+    public Inventory snapshot(String skuCode) {
+        LedgerEntry entry = entries.get(skuCode);
+        if (entry == null) {
+            return null;
+        }
+        int quantity = entry.available.get();
+        return Inventory.builder()
+                .id(entry.base.getId())
+                .skuCode(skuCode)
+                .quantity(quantity)
+                .status(InventoryStatus.forQuantity(quantity))
+                .createdAt(entry.base.getCreatedAt())
+                .updatedAt(entry.base.getUpdatedAt())
+                .version(entry.base.getVersion())
+                .build();
+    }
+
+    public ReserveResult tryReserve(String skuCode, int quantity) {
+        LedgerEntry entry = entries.get(skuCode);
+        if (entry == null) {
+            return ReserveResult.NOT_TRACKED;
+        }
+        int current;
+        do {
+            current = entry.available.get();
+            if (current < quantity) {
+                return ReserveResult.INSUFFICIENT;
+            }
+        } while (!entry.available.compareAndSet(current, current - quantity));
+
+        if (!recordOrRollback(skuCode, entry, -quantity)) {
+            return ReserveResult.NOT_TRACKED;
+        }
+        return ReserveResult.RESERVED;
+    }
+
+    /**
+     * All-or-nothing reservation of several tracked SKUs.
+     * Returns the SKUs that could not be reserved; empty means everything is reserved.
+     */
+    public List<String> tryReserveAll(Map<String, Integer> quantityBySku) {
+        Map<String, Integer> reserved = new HashMap<>();
+        List<String> failedSkus = new ArrayList<>();
+        quantityBySku.forEach((skuCode, quantity) -> {
+            if (failedSkus.isEmpty() && tryReserve(skuCode, quantity) == ReserveResult.RESERVED) {
+                reserved.put(skuCode, quantity);
+            } else {
+                failedSkus.add(skuCode);
+            }
+        });
+        if (!failedSkus.isEmpty()) {
+            reserved.forEach(this::add);
+        }
+        return failedSkus;
+    }
+
+    // Unconditional change (restock, compensation, manual correction); false when the SKU is not tracked
+    public boolean add(String skuCode, int delta) {
+        LedgerEntry entry = entries.get(skuCode);
+        if (entry == null) {
+            return false;
+        }
+        entry.available.addAndGet(delta);
+        return recordOrRollback(skuCode, entry, delta);
+    }
+
+    public void enable(String skuCode) {
+        if (!enabled) {
+            throw new RuntimeException("Hot stock ledger is disabled");
+        }
+        lock.writeLock().lock();
+        try {
+            if (entries.containsKey(skuCode)) {
+                return;
+            }
+            // Deltas of an earlier switch-off must reach the table before reading the quantity again
+            if (retiredDeltas.containsKey(skuCode)) {
+                throw new RuntimeException("Ledger for skuCode " + skuCode + " is still flushing, try again shortly");
+            }
+            // Still ours if it was switched off and the release has not been flushed yet
+            if (!releasedOwnerships.remove(skuCode)) {
+                claimOwnership(skuCode);
+            }
+            // Read after the claim, so no other instance changes the row behind the quantity we start from
+            Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
+                    .orElseThrow(() -> new RuntimeException("Inventory not found for skuCode: " + skuCode));
+            entries.put(skuCode, new LedgerEntry(inventory));
+            log.info("Hot stock ledger enabled for skuCode: {} with quantity {}", skuCode, inventory.getQuantity());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void disable(String skuCode) {
+        lock.writeLock().lock();
+        try {
+            LedgerEntry entry = entries.remove(skuCode);
+            if (entry == null) {
+                return;
+            }
+            entry.retired = true;
+            long pending = entry.pendingDelta.sumThenReset();
+            if (pending != 0) {
+                retiredDeltas.merge(skuCode, (int) pending, Integer::sum);
+            }
+            releasedOwnerships.add(skuCode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        flush();
+        log.info("Hot stock ledger disabled for skuCode: {}", skuCode);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (journal != null) {
+            flush();
+        }
+    }
+
+    // Runs on every instance, also with the ledger off, since any of them could decrement a SKU another one tracks
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:1000}")
+    public void refreshForeignOwners() {
+        Map<String, String> owners = new HashMap<>();
+        ledgerOwnerRepository.findAll().stream()
+                .filter(owner -> !owner.getNodeId().equals(nodeId))
+                .forEach(owner -> owners.put(owner.getSkuCode(), owner.getNodeId()));
+        foreignOwners = owners;
+    }
+
+    /**
+     * Writes the summed deltas since the last flush to t_inventory, one UPDATE per SKU,
+     * together with the journal checkpoint in the same transaction. Ownership of switched off
+     * SKUs is given up in that transaction too, once their last deltas are in the table.
+     */
+    public synchronized void flush() {
+        if (journal == null) {
+            return;
+        }
+        Map<String, Integer> deltas = new HashMap<>();
+        Set<String> released;
+        long closedSegment;
+        long oldestChange;
+        lock.writeLock().lock();
+        try {
+            entries.forEach((skuCode, entry) -> {
+                long pending = entry.pendingDelta.sumThenReset();
+                if (pending != 0) {
+                    deltas.put(skuCode, (int) pending);
+                }
+            });
+            retiredDeltas.forEach((skuCode, delta) -> deltas.merge(skuCode, delta, Integer::sum));
+            retiredDeltas.clear();
+            released = new HashSet<>(releasedOwnerships);
+            releasedOwnerships.clear();
+            closedSegment = journal.rotate();
+            oldestChange = oldestUnflushedChangeNanos.getAndSet(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (deltas.isEmpty() && released.isEmpty()) {
+            journal.deleteUpTo(closedSegment);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                deltas.forEach((skuCode, delta) -> inventoryRepository.incrementQuantity(skuCode, delta, now));
+                ledgerOwnerRepository.deleteAllById(released);
+                ledgerCheckpointRepository.save(new LedgerCheckpoint(nodeId, closedSegment, now));
+            });
+            journal.deleteUpTo(closedSegment);
+            flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            log.debug("Hot stock ledger flushed {} skuCodes", deltas.size());
+        } catch (RuntimeException e) {
+            // Put the deltas back; the segments stay on disk until a later flush succeeds
+            lock.writeLock().lock();
+            try {
+                deltas.forEach((skuCode, delta) -> {
+                    LedgerEntry entry = entries.get(skuCode);
+                    if (entry != null) {
+                        entry.pendingDelta.add(delta);
+                    } else {
+                        retiredDeltas.merge(skuCode, delta, Integer::sum);
+                    }
+                });
+                released.stream().filter(skuCode -> !entries.containsKey(skuCode)).forEach(releasedOwnerships::add);
+                oldestUnflushedChangeNanos.accumulateAndGet(oldestChange, (current, restored) ->
+                        current == 0 ? restored : Math.min(current, restored));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("Hot stock ledger flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (journal != null) {
+            flush();
+            journal.close();
+        }
+    }
+
+    // Gives the counter change back when the journal refuses it, so a failed write never takes stock
+    private boolean recordOrRollback(String skuCode, LedgerEntry entry, int delta) {
+        boolean recorded;
+        try {
+            recorded = record(skuCode, entry, delta);
+        } catch (RuntimeException e) {
+            entry.available.addAndGet(-delta);
+            throw e;
+        }
+        if (!recorded) {
+            entry.available.addAndGet(-delta);
+        }
+        return recorded;
+    }
+
+    private void claimOwnership(String skuCode) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LedgerOwner owner = ledgerOwnerRepository.findById(skuCode).orElse(null);
+            if (owner == null) {
+                // Primary key on sku_code: of two instances claiming at once, one insert fails
+                ledgerOwnerRepository.saveAndFlush(new LedgerOwner(skuCode, nodeId, LocalDateTime.now()));
+            } else if (!owner.getNodeId().equals(nodeId)) {
+                throw new RuntimeException("skuCode " + skuCode + " is already kept in the ledger of " + owner.getNodeId());
+            }
+        });
+    }
+
+    private boolean record(String skuCode, LedgerEntry entry, int delta) {
+        lock.readLock().lock();
+        try {
+            if (entry.retired) {
+                return false;
+            }
+            journal.append(skuCode, delta);
+            entry.pendingDelta.add(delta);
+            oldestUnflushedChangeNanos.compareAndSet(0, System.nanoTime());
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Replays journal segments that were written but never flushed (crash) and returns the last segment number
+    private long recover(StockLedgerJournal journal) {
+        long checkpoint = ledgerCheckpointRepository.findById(nodeId)
+                .map(LedgerCheckpoint::getLastFlushedSegment)
+                .orElse(-1L);
+        List<Long> segments = journal.existingSegments();
+        long lastSegment = Math.max(checkpoint, segments.isEmpty() ? -1L : segments.get(segments.size() - 1));
+
+        Map<String, Integer> unflushed = new HashMap<>();
+        segments.stream()
+                .filter(segment -> segment > checkpoint)
+                .forEach(segment -> journal.readSegment(segment).forEach((skuCode, delta) -> unflushed.merge(skuCode, delta, Integer::sum)));
+
+        if (!unflushed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                unflushed.forEach((skuCode, delta) -> inventoryRepository.incrementQuantity(skuCode, delta, now));
+                ledgerCheckpointRepository.save(new LedgerCheckpoint(nodeId, lastSegment, now));
+            });
+            log.warn("Hot stock ledger recovered unflushed changes for {} skuCodes from the journal", unflushed.size());
+        }
+        journal.deleteUpTo(lastSegment);
+        return lastSegment;
+    }
+
+    private double flushLagSeconds() {
+        long oldest = oldestUnflushedChangeNanos.get();
+        return oldest == 0 ? 0 : (System.nanoTime() - oldest) / 1_000_000_000.0;
+    }
+}
@@ -1,15 +1,31 @@
 package com.feritbilgi.inventory_service.service;
 
+import com.feritbilgi.inventory_service.dto.StockReservationRequest;
+import com.feritbilgi.inventory_service.dto.StockReservationResponse;
 import com.feritbilgi.inventory_service.model.Inventory;
 import com.feritbilgi.inventory_service.model.InventoryStatus;
+import com.feritbilgi.inventory_service.model.StockReservationMode;
 import com.feritbilgi.inventory_service.repository.InventoryRepository;
 import com.feritbilgi.shared.annotation.LogOperation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 
 @Service
@@ -17,11 +33,24 @@ import lombok.SneakyThrows;
 @Slf4j
 public class InventoryService {
 
+    // Message of a SKU that had enough stock but was not reserved because another SKU of the basket was short
+    static final String HELD_BACK_MESSAGE = "Not reserved, other items are not in stock";
+
     private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotStockLedger hotStockLedger;
+
+    @Value("${inventory.reservation.mode:CONDITIONAL}")
+    private StockReservationMode reservationMode;
+
+    @Value("${inventory.reservation.optimistic-max-attempts:3}")
+    private int optimisticMaxAttempts;
 
     @LogOperation(operation = "INVENTORY_RETRIEVED", description = "Tüm envanter bilgileri getirildi")
     public List<Inventory> getAllInventory() {
-        return inventoryRepository.findAll();
+        return inventoryRepository.findAll().stream()
+                .map(this::withLedgerQuantity)
+                .toList();
     }
 
     // @SneakyThrows
@@ -30,7 +59,9 @@ public class InventoryService {
         // Thread.sleep(10000); // 10 saniye bekle
         // log.info("Wait ended");
         
-        return inventoryRepository.findBySkuCodeIn(skuCodes);
+        return inventoryRepository.findBySkuCodeIn(skuCodes).stream()
+                .map(this::withLedgerQuantity)
+                .toList();
     }
 
     // @SneakyThrows
@@ -39,6 +70,10 @@ public class InventoryService {
         // Thread.sleep(10000); // 10 saniye bekle
         // log.info("Wait ended");
         
+        Inventory snapshot = hotStockLedger.snapshot(skuCode);
+        if (snapshot != null) {
+            return snapshot;
+        }
         return inventoryRepository.findBySkuCode(skuCode)
                 .orElseThrow(() -> new RuntimeException("Inventory not found for skuCode: " + skuCode));
     }
@@ -49,6 +84,10 @@ public class InventoryService {
         // Thread.sleep(10000); // 10 saniye bekle
         // log.info("Wait ended");
         
+        Integer available = hotStockLedger.available(skuCode);
+        if (available != null) {
+            return available >= quantity;
+        }
         Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
                 .orElse(null);
         return inventory != null && inventory.getQuantity() >= quantity;
@@ -56,22 +95,355 @@ public class InventoryService {
 
     @LogOperation(operation = "INVENTORY_UPDATED", description = "Envanter stoku güncellendi")
     public void updateStock(String skuCode, int quantity) {
+        if (hotStockLedger.add(skuCode, -quantity)) {
+            log.info("Stock updated in ledger for skuCode: {}, new quantity: {}", skuCode, hotStockLedger.available(skuCode));
+            return;
+        }
+        requireNotForeign(List.of(skuCode));
         Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
                 .orElseThrow(() -> new RuntimeException("Inventory not found for skuCode: " + skuCode));
         
         inventory.setQuantity(inventory.getQuantity() - quantity);
         inventory.setUpdatedAt(LocalDateTime.now());
-        
-        // Update status based on quantity
-        if (inventory.getQuantity() <= 0) {
-            inventory.setStatus(InventoryStatus.OUT_OF_STOCK);
-        } else if (inventory.getQuantity() < 10) {
-            inventory.setStatus(InventoryStatus.LOW_STOCK);
-        } else {
-            inventory.setStatus(InventoryStatus.IN_STOCK);
-        }
+        refreshStatus(inventory);
         
         inventoryRepository.save(inventory);
         log.info("Stock updated for skuCode: {}, new quantity: {}", skuCode, inventory.getQuantity());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Reserves a single SKU without ever letting the quantity go negative.
+     * Fails fast (reserved = false) when the stock is not enough.
+     */
+    @LogOperation(operation = "INVENTORY_RESERVED", description = "Stok rezerve edildi")
+    public StockReservationResponse reserve(String skuCode, int quantity) {
+        requirePositive(skuCode, quantity);
+        HotStockLedger.ReserveResult ledgerResult = hotStockLedger.tryReserve(skuCode, quantity);
+        if (ledgerResult != HotStockLedger.ReserveResult.NOT_TRACKED) {
+            boolean reserved = ledgerResult == HotStockLedger.ReserveResult.RESERVED;
+            return reservationResponse(skuCode, quantity, hotStockLedger.available(skuCode), reserved,
+                    reserved ? "Reserved" : "Insufficient stock");
+        }
+
+        requireNotForeign(List.of(skuCode));
+        if (reservationMode == StockReservationMode.OPTIMISTIC) {
+            return withOptimisticRetry(() -> reserveOptimistic(skuCode, quantity));
+        }
+
+        int updatedRows = inventoryRepository.decrementIfAvailable(skuCode, quantity, LocalDateTime.now());
+        if (updatedRows == 0) {
+            log.info("Stock reservation rejected for skuCode: {}, quantity: {}", skuCode, quantity);
+            return reservationResponse(skuCode, quantity, null, false, "Insufficient stock or inventory not found");
+        }
+        log.info("Stock reserved for skuCode: {}, quantity: {}", skuCode, quantity);
+        return reservationResponse(skuCode, quantity, null, true, "Reserved");
+    }
+
+    /**
+     * Reserves stock for a whole basket in a single transaction.
+     * All SKUs are loaded with one query and written back together; if any SKU
+     * is missing or short, nothing is reserved and the per-SKU results explain why.
+     * The write is guarded by the @Version column and retried on conflict.
+     */
+    @LogOperation(operation = "INVENTORY_RESERVED", description = "Sepet için stok rezerve edildi")
+    public List<StockReservationResponse> reserveStock(List<StockReservationRequest> reservationRequests) {
+        return withOptimisticRetry(() -> transactionTemplate.execute(status -> reserveBasket(reservationRequests)));
+    }
+
+    private StockReservationResponse reserveOptimistic(String skuCode, int quantity) {
+        return transactionTemplate.execute(status -> {
+            Inventory inventory = inventoryRepository.findBySkuCode(skuCode).orElse(null);
+            if (inventory == null) {
+                return reservationResponse(skuCode, quantity, 0, false, "Inventory not found");
+            }
+            if (inventory.getQuantity() < quantity) {
+                return reservationResponse(skuCode, quantity, inventory.getQuantity(), false, "Insufficient stock");
+            }
+            inventory.setQuantity(inventory.getQuantity() - quantity);
+            inventory.setUpdatedAt(LocalDateTime.now());
+            refreshStatus(inventory);
+            inventoryRepository.saveAndFlush(inventory); // Version check happens here
+            return reservationResponse(skuCode, quantity, inventory.getQuantity(), true, "Reserved");
+        });
+    }
+
+    static void requirePositive(String skuCode, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity of " + skuCode + " must be positive");
+        }
+    }
+
+    /**
+     * Checked before any summing: a zero or negative line would cancel another line of the
+     * same SKU, and a null quantity would fail inside the sum instead of being reported.
+     */
+    static void requireValidItems(List<StockReservationRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Reservation has no items");
+        }
+        for (StockReservationRequest item : items) {
+            requireSkuCode(item);
+            requirePositive(item.getSkuCode(), item.getQuantity());
+        }
+    }
+
+    static void requireSkuCode(StockReservationRequest item) {
+        if (item == null || item.getSkuCode() == null || item.getSkuCode().isBlank()) {
+            throw new IllegalArgumentException("Item without skuCode");
+        }
+    }
+
+    // Same SKU can appear on several order lines, so the quantities are summed before any stock check
+    static Map<String, Integer> requestedBySku(List<StockReservationRequest> items) {
+        Map<String, Integer> requestedBySku = new LinkedHashMap<>();
+        for (StockReservationRequest item : items) {
+            requestedBySku.merge(item.getSkuCode(), item.getQuantity(), Integer::sum);
+        }
+        return requestedBySku;
+    }
+
+    <T> T withOptimisticRetry(Supplier<T> attempt) {
+        for (int attemptNo = 1; ; attemptNo++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attemptNo >= optimisticMaxAttempts) {
+                    throw new RuntimeException("Stock was updated concurrently, please try again", e);
+                }
+                log.debug("Optimistic lock conflict, retrying ({}/{})", attemptNo, optimisticMaxAttempts);
+            }
+        }
+    }
+
+    // Must run inside a transaction; package-private so reservations can join it
+    List<StockReservationResponse> reserveBasket(List<StockReservationRequest> reservationRequests) {
+        requireValidItems(reservationRequests);
+        Map<String, Integer> requestedBySku = requestedBySku(reservationRequests);
+
+        // Hot SKUs are reserved in the in-memory ledger, the rest in the table
+        Map<String, Integer> hotRequestedBySku = new LinkedHashMap<>();
+        List<String> tableSkuCodes = new ArrayList<>();
+        requestedBySku.forEach((skuCode, quantity) -> {
+            if (hotStockLedger.isTracked(skuCode)) {
+                hotRequestedBySku.put(skuCode, quantity);
+            } else {
+                tableSkuCodes.add(skuCode);
+            }
+        });
+
+        requireNotForeign(tableSkuCodes);
+        Map<String, Inventory> inventoryBySku = tableSkuCodes.isEmpty()
+                ? new HashMap<>()
+                : inventoryRepository.findBySkuCodeIn(tableSkuCodes)
+                        .stream()
+                        .collect(Collectors.toMap(Inventory::getSkuCode, Function.identity()));
+
+        boolean tableAvailable = tableSkuCodes.stream()
+                .allMatch(skuCode -> {
+                    Inventory inventory = inventoryBySku.get(skuCode);
+                    return inventory != null && inventory.getQuantity() >= requestedBySku.get(skuCode);
+                });
+        // Memory is only touched once the table side is known to be fine. The ledger stops at its first
+        // short SKU; that one is reported as short even if a restock lands before the quantities are read below
+        List<String> failedHotSkus = tableAvailable ? hotStockLedger.tryReserveAll(hotRequestedBySku) : List.of();
+        String shortHotSku = failedHotSkus.isEmpty() ? null : failedHotSkus.get(0);
+        boolean allAvailable = tableAvailable && failedHotSkus.isEmpty();
+
+        List<StockReservationResponse> responses = new ArrayList<>(requestedBySku.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Map.Entry<String, Integer> entry : requestedBySku.entrySet()) {
+            Integer currentQuantity = hotRequestedBySku.containsKey(entry.getKey())
+                    ? hotStockLedger.available(entry.getKey())
+                    : quantityOf(inventoryBySku.get(entry.getKey()));
+            if (currentQuantity == null) {
+                responses.add(reservationResponse(entry.getKey(), entry.getValue(), 0, false, "Inventory not found"));
+            } else if (!allAvailable && (currentQuantity < entry.getValue() || entry.getKey().equals(shortHotSku))) {
+                responses.add(reservationResponse(entry.getKey(), entry.getValue(), currentQuantity, false, "Insufficient stock"));
+            } else if (!allAvailable) {
+                responses.add(reservationResponse(entry.getKey(), entry.getValue(), currentQuantity, false, HELD_BACK_MESSAGE));
+            } else if (hotRequestedBySku.containsKey(entry.getKey())) {
+                responses.add(reservationResponse(entry.getKey(), entry.getValue(), currentQuantity, true, "Reserved"));
+            } else {
+                Inventory inventory = inventoryBySku.get(entry.getKey());
+                inventory.setQuantity(inventory.getQuantity() - entry.getValue());
+                inventory.setUpdatedAt(now);
+                refreshStatus(inventory);
+                responses.add(reservationResponse(entry.getKey(), entry.getValue(), inventory.getQuantity(), true, "Reserved"));
+            }
+        }
+
+        if (allAvailable) {
+            inventoryRepository.saveAll(inventoryBySku.values());
+            compensateLedgerOnRollback(hotRequestedBySku);
+            log.info("Stock reserved for {} skuCodes", requestedBySku.size());
+        } else {
+            log.info("Stock reservation rejected for skuCodes: {}", requestedBySku.keySet());
+        }
+        return responses;
+    }
+
+    /**
+     * Reserves many baskets (one per order) against a single read of every SKU they touch.
+     * Each basket is still all-or-nothing; baskets are served in the given order until the
+     * stock runs out, and all table rows are written back together at the end.
+     * Returns the short SKUs per basket, an empty list means the basket is reserved.
+     * Must run inside a transaction, with every basket already checked by requireValidItems.
+     */
+    List<List<String>> reserveBaskets(List<List<StockReservationRequest>> baskets) {
+        List<Map<String, Integer>> requestedBySkuPerBasket = baskets.stream()
+                .map(InventoryService::requestedBySku)
+                .toList();
+
+        List<String> tableSkuCodes = requestedBySkuPerBasket.stream()
+                .flatMap(requestedBySku -> requestedBySku.keySet().stream())
+                .distinct()
+                .filter(skuCode -> !hotStockLedger.isTracked(skuCode))
+                .toList();
+        requireNotForeign(tableSkuCodes);
+        Map<String, Inventory> inventoryBySku = tableSkuCodes.isEmpty()
+                ? new HashMap<>()
+                : inventoryRepository.findBySkuCodeIn(tableSkuCodes)
+                        .stream()
+                        .collect(Collectors.toMap(Inventory::getSkuCode, Function.identity()));
+
+        List<List<String>> shortSkuCodesPerBasket = new ArrayList<>(baskets.size());
+        Map<String, Integer> hotReservedBySku = new HashMap<>();
+        Map<String, Inventory> touched = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Map<String, Integer> requestedBySku : requestedBySkuPerBasket) {
+            Map<String, Integer> hotRequestedBySku = new LinkedHashMap<>();
+            List<String> shortSkuCodes = new ArrayList<>();
+            requestedBySku.forEach((skuCode, quantity) -> {
+                if (hotStockLedger.isTracked(skuCode)) {
+                    hotRequestedBySku.put(skuCode, quantity);
+                    return;
+                }
+                Inventory inventory = inventoryBySku.get(skuCode);
+                if (inventory == null || inventory.getQuantity() < quantity) {
+                    shortSkuCodes.add(skuCode);
+                }
+            });
+            // Memory is only touched once the table side of this basket is known to be fine
+            if (shortSkuCodes.isEmpty()) {
+                shortSkuCodes.addAll(hotStockLedger.tryReserveAll(hotRequestedBySku));
+            }
+            if (shortSkuCodes.isEmpty()) {
+                hotRequestedBySku.forEach((skuCode, quantity) -> hotReservedBySku.merge(skuCode, quantity, Integer::sum));
+                requestedBySku.forEach((skuCode, quantity) -> {
+                    Inventory inventory = inventoryBySku.get(skuCode);
+                    if (inventory != null && !hotRequestedBySku.containsKey(skuCode)) {
+                        inventory.setQuantity(inventory.getQuantity() - quantity);
+                        inventory.setUpdatedAt(now);
+                        refreshStatus(inventory);
+                        touched.put(skuCode, inventory);
+                    }
+                });
+            }
+            shortSkuCodesPerBasket.add(shortSkuCodes);
+        }
+
+        inventoryRepository.saveAll(touched.values());
+        compensateLedgerOnRollback(hotReservedBySku);
+        log.info("Stock reserved for {} of {} baskets over {} skuCodes",
+                shortSkuCodesPerBasket.stream().filter(List::isEmpty).count(), baskets.size(), inventoryBySku.size());
+        return shortSkuCodesPerBasket;
+    }
+
+    // The ledger is not part of the database transaction, so give the memory side back if the table side rolls back
+    private void compensateLedgerOnRollback(Map<String, Integer> hotReservedBySku) {
+        if (hotReservedBySku.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    hotReservedBySku.forEach(hotStockLedger::add);
+                }
+            }
+        });
+    }
+
+    // The owner's counter would not see a table decrement, so a SKU tracked by another instance is refused here
+    private void requireNotForeign(List<String> skuCodes) {
+        for (String skuCode : skuCodes) {
+            String owner = hotStockLedger.foreignOwner(skuCode);
+            if (owner != null) {
+                throw new RuntimeException("Stock of skuCode " + skuCode + " is kept in the ledger of " + owner + ", please try again there");
+            }
+        }
+    }
+
+    private Integer quantityOf(Inventory inventory) {
+        return inventory == null ? null : inventory.getQuantity();
+    }
+
+    // Tracked SKUs show the in-memory quantity, the table may lag behind by one flush interval
+    private Inventory withLedgerQuantity(Inventory inventory) {
+        Inventory snapshot = hotStockLedger.snapshot(inventory.getSkuCode());
+        return snapshot != null ? snapshot : inventory;
+    }
+
+    /**
+     * Gives reserved stock back, one UPDATE per SKU.
+     */
+    public void restock(Map<String, Integer> quantityBySku) {
+        LocalDateTime now = LocalDateTime.now();
+        quantityBySku.forEach((skuCode, quantity) -> {
+            if (hotStockLedger.isTracked(skuCode)) {
+                restockLedgerAfterCommit(skuCode, quantity, now);
+                return;
+            }
+            if (inventoryRepository.incrementQuantity(skuCode, quantity, now) == 0) {
+                log.warn("Inventory not found while restocking skuCode: {}", skuCode);
+            }
+        });
+        log.info("Stock given back for {} skuCodes", quantityBySku.size());
+    }
+
+    // Memory must not get the stock back if the reservation status change is rolled back
+    private void restockLedgerAfterCommit(String skuCode, int quantity, LocalDateTime now) {
+        Runnable restock = () -> {
+            boolean added;
+            try {
+                added = hotStockLedger.add(skuCode, quantity);
+            } catch (RuntimeException e) {
+                log.error("Ledger restock of skuCode {} failed, writing it to the table: {}", skuCode, e.getMessage());
+                added = false;
+            }
+            if (!added) {
+                // Switched off in the meantime. afterCommit runs after the commit, a write joining that
+                // transaction would never be committed, so the fallback gets a transaction of its own
+                TransactionTemplate newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                newTransaction.executeWithoutResult(status -> inventoryRepository.incrementQuantity(skuCode, quantity, now));
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            restock.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restock.run();
+            }
+        });
+    }
+
+    private void refreshStatus(Inventory inventory) {
+        inventory.setStatus(InventoryStatus.forQuantity(inventory.getQuantity()));
+    }
+
+    private StockReservationResponse reservationResponse(String skuCode, int requested, Integer remaining, boolean reserved, String message) {
+        return StockReservationResponse.builder()
+                .skuCode(skuCode)
+                .requestedQuantity(requested)
+                .remainingQuantity(remaining)
+                .reserved(reserved)
+                .message(message)
+                .build();
+    }
+}
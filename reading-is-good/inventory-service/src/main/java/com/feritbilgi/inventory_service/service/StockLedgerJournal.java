@@ -0,0 +1,134 @@
+package com.feritbilgi.inventory_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of in-memory stock changes, split into numbered segment files.
+ * A segment is deleted only after its deltas are written to t_inventory, so whatever
+ * is left on disk at startup still has to be replayed. append() may run concurrently
+ * (FileChannel writes are thread-safe); rotate() only runs under the ledger's write lock.
+ */
+@Slf4j
+class StockLedgerJournal {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean fsync;
+    private long currentSegment = -1;
+    private FileChannel channel;
+
+    StockLedgerJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger journal directory could not be created: " + directory, e);
+        }
+    }
+
+    List<Long> existingSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Sums every record of the segment per SKU
+    Map<String, Integer> readSegment(long segment) {
+        Map<String, Integer> deltaBySku = new HashMap<>();
+        try (Stream<String> lines = Files.lines(segmentPath(segment), StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                int separator = line.lastIndexOf('\t');
+                if (separator > 0) { // A torn last line from a crash has no separator, skip it
+                    try {
+                        deltaBySku.merge(line.substring(0, separator), Integer.parseInt(line.substring(separator + 1)), Integer::sum);
+                    } catch (NumberFormatException e) {
+                        log.warn("Skipping corrupt ledger journal record in segment {}: {}", segment, line);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deltaBySku;
+    }
+
+    void open(long segment) {
+        try {
+            currentSegment = segment;
+            channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // FileChannel writes go straight to the OS, so a process crash does not lose them; fsync also covers power loss
+    void append(String skuCode, int delta) {
+        try {
+            channel.write(ByteBuffer.wrap((skuCode + '\t' + delta + '\n').getBytes(StandardCharsets.UTF_8)));
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger journal write failed", e);
+        }
+    }
+
+    // Closes the current segment and starts the next one; returns the closed segment number
+    long rotate() {
+        long closedSegment = currentSegment;
+        close();
+        open(closedSegment + 1);
+        return closedSegment;
+    }
+
+    void deleteUpTo(long segment) {
+        for (Long existing : existingSegments()) {
+            if (existing <= segment && existing != currentSegment) {
+                try {
+                    Files.deleteIfExists(segmentPath(existing));
+                } catch (IOException e) {
+                    log.warn("Ledger journal segment {} could not be deleted: {}", existing, e.getMessage());
+                }
+            }
+        }
+    }
+
+    void close() {
+        if (channel != null) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Ledger journal could not be closed: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,374 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.dto.StockReservationRequest;
+import com.feritbilgi.inventory_service.dto.StockReservationResponse;
+import com.feritbilgi.inventory_service.dto.TryReserveRequest;
+import com.feritbilgi.inventory_service.dto.TryReserveResponse;
+import com.feritbilgi.inventory_service.model.ReservationStatus;
+import com.feritbilgi.inventory_service.model.StockReservation;
+import com.feritbilgi.inventory_service.model.StockReservationLine;
+import com.feritbilgi.inventory_service.repository.StockReservationRepository;
+import com.feritbilgi.shared.annotation.LogOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final InventoryService inventoryService;
+    private final StockReservationRepository stockReservationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.reservation.ttl:PT15M}")
+    private Duration reservationTtl;
+
+    @Value("${inventory.reservation.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    /**
+     * Checks and decrements the whole order atomically in one call and keeps the
+     * stock on hold until it is committed, released or expires.
+     * Returns a reservation id on success, otherwise the SKUs that are short.
+     */
+    @LogOperation(operation = "STOCK_RESERVED", description = "Sipariş için stok ayrıldı")
+    public TryReserveResponse tryReserve(TryReserveRequest tryReserveRequest) {
+        InventoryService.requireValidItems(tryReserveRequest.getItems());
+        String orderNumber = tryReserveRequest.getOrderNumber() != null
+                ? tryReserveRequest.getOrderNumber()
+                : UUID.randomUUID().toString();
+
+        // A retried call for the same order must not take the stock twice
+        StockReservation existing = stockReservationRepository.findByOrderNumber(orderNumber).orElse(null);
+        if (existing != null) {
+            return existingReservationResponse(existing);
+        }
+
+        return inventoryService.withOptimisticRetry(() -> transactionTemplate.execute(status -> {
+            List<StockReservationResponse> responses = inventoryService.reserveBasket(tryReserveRequest.getItems());
+            if (!allReserved(responses)) {
+                return notReservedResponse(responses);
+            }
+
+            StockReservation reservation = heldReservation(orderNumber, tryReserveRequest.getItems(), LocalDateTime.now());
+            stockReservationRepository.save(reservation);
+
+            log.info("Stock held for order {} until {}", orderNumber, reservation.getExpiresAt());
+            return reservedResponse(reservation);
+        }));
+    }
+
+    /**
+     * Bulk version of {@link #tryReserve}: every order is still all-or-nothing, but the whole
+     * batch shares one SKU read, one write per SKU and one batch of reservation inserts.
+     * Responses come back in request order. An invalid order rejects the whole batch before
+     * any stock is taken; order-service validates each order before it builds a batch.
+     */
+    @LogOperation(operation = "STOCK_RESERVED", description = "Toplu sipariş için stok ayrıldı")
+    public List<TryReserveResponse> tryReserveAll(List<TryReserveRequest> tryReserveRequests) {
+        tryReserveRequests.forEach(request -> InventoryService.requireValidItems(request.getItems()));
+        List<String> orderNumbers = tryReserveRequests.stream()
+                .map(request -> request.getOrderNumber() != null ? request.getOrderNumber() : UUID.randomUUID().toString())
+                .toList();
+
+        return inventoryService.withOptimisticRetry(() -> transactionTemplate.execute(status -> {
+            // Retried orders keep the stock they already hold
+            Map<String, StockReservation> existingByOrderNumber = new HashMap<>();
+            stockReservationRepository.findByOrderNumberIn(orderNumbers)
+                    .forEach(reservation -> existingByOrderNumber.put(reservation.getOrderNumber(), reservation));
+
+            List<Integer> pendingIndexes = new ArrayList<>();
+            List<List<StockReservationRequest>> baskets = new ArrayList<>();
+            for (int i = 0; i < tryReserveRequests.size(); i++) {
+                if (!existingByOrderNumber.containsKey(orderNumbers.get(i))) {
+                    pendingIndexes.add(i);
+                    baskets.add(tryReserveRequests.get(i).getItems());
+                }
+            }
+            List<List<String>> shortSkuCodesPerBasket = baskets.isEmpty() ? List.of() : inventoryService.reserveBaskets(baskets);
+
+            TryReserveResponse[] responses = new TryReserveResponse[tryReserveRequests.size()];
+            List<StockReservation> newReservations = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < pendingIndexes.size(); i++) {
+                int index = pendingIndexes.get(i);
+                List<String> shortSkuCodes = shortSkuCodesPerBasket.get(i);
+                if (!shortSkuCodes.isEmpty()) {
+                    responses[index] = TryReserveResponse.builder()
+                            .reserved(false)
+                            .shortSkuCodes(shortSkuCodes)
+                            .build();
+                    continue;
+                }
+                StockReservation reservation = heldReservation(orderNumbers.get(index), baskets.get(i), now);
+                newReservations.add(reservation);
+                responses[index] = reservedResponse(reservation);
+            }
+            for (int i = 0; i < responses.length; i++) {
+                StockReservation existing = existingByOrderNumber.get(orderNumbers.get(i));
+                if (existing != null) {
+                    responses[i] = bulkExistingReservationResponse(existing);
+                }
+            }
+
+            stockReservationRepository.saveAll(newReservations);
+            log.info("Stock held for {} of {} orders until {}", newReservations.size(), tryReserveRequests.size(), now.plus(reservationTtl));
+            return List.of(responses);
+        }));
+    }
+
+    /**
+     * Applies the net change of an edited order to its reservation: positive quantities are
+     * reserved all-or-nothing, negative ones are given back. Only the SKUs in the request
+     * are touched, the rest of the order stays as it is.
+     */
+    @LogOperation(operation = "STOCK_RESERVATION_ADJUSTED", description = "Stok rezervasyonu güncellendi")
+    public TryReserveResponse adjust(String orderNumber, List<StockReservationRequest> deltas) {
+        // Deltas may be negative, but a line without a SKU or a change is a broken request
+        for (StockReservationRequest delta : deltas) {
+            InventoryService.requireSkuCode(delta);
+            if (delta.getQuantity() == null || delta.getQuantity() == 0) {
+                throw new IllegalArgumentException("Change of " + delta.getSkuCode() + " must not be zero");
+            }
+        }
+        return inventoryService.withOptimisticRetry(() -> transactionTemplate.execute(status -> {
+            StockReservation reservation = stockReservationRepository.findForUpdateByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new RuntimeException("Reservation not found for order: " + orderNumber));
+            if (reservation.getStatus() != ReservationStatus.HELD && reservation.getStatus() != ReservationStatus.COMMITTED) {
+                throw new RuntimeException("Reservation for order " + orderNumber + " is already " + reservation.getStatus());
+            }
+
+            Map<String, Integer> deltaBySku = new LinkedHashMap<>();
+            deltas.forEach(delta -> deltaBySku.merge(delta.getSkuCode(), delta.getQuantity(), Integer::sum));
+            Map<String, StockReservationLine> linesBySku = new HashMap<>();
+            reservation.getLines().forEach(line -> linesBySku.put(line.getSkuCode(), line));
+
+            List<StockReservationRequest> increases = new ArrayList<>();
+            Map<String, Integer> decreases = new HashMap<>();
+            deltaBySku.forEach((skuCode, delta) -> {
+                if (delta > 0) {
+                    increases.add(new StockReservationRequest(skuCode, delta));
+                } else if (delta < 0) {
+                    StockReservationLine line = linesBySku.get(skuCode);
+                    int held = line == null ? 0 : line.getQuantity();
+                    if (held < -delta) {
+                        throw new RuntimeException("Order " + orderNumber + " holds only " + held + " of " + skuCode);
+                    }
+                    decreases.put(skuCode, -delta);
+                }
+            });
+
+            if (!increases.isEmpty()) {
+                List<StockReservationResponse> responses = inventoryService.reserveBasket(increases);
+                if (!allReserved(responses)) {
+                    return notReservedResponse(responses);
+                }
+            }
+            if (!decreases.isEmpty()) {
+                inventoryService.restock(decreases);
+            }
+
+            // A line that drops to zero is kept at 0; lines are not orphan-removed and restocking 0 is a no-op
+            deltaBySku.forEach((skuCode, delta) -> {
+                StockReservationLine line = linesBySku.get(skuCode);
+                if (line != null) {
+                    line.setQuantity(line.getQuantity() + delta);
+                } else if (delta > 0) {
+                    reservation.getLines().add(StockReservationLine.builder().skuCode(skuCode).quantity(delta).build());
+                }
+            });
+            reservation.setUpdatedAt(LocalDateTime.now());
+
+            log.info("Reservation of order {} adjusted for {} skuCodes", orderNumber, deltaBySku.size());
+            return reservedResponse(reservation);
+        }));
+    }
+
+    /**
+     * Turns the hold into a sale. A hold that expired while order-service could not reach us
+     * (its outbox keeps retrying) is taken again from the current stock; returns false when
+     * that stock is gone, so the order can be failed instead of staying placed without stock.
+     */
+    @LogOperation(operation = "STOCK_RESERVATION_COMMITTED", description = "Stok rezervasyonu onaylandı")
+    public boolean commit(String orderNumber) {
+        Boolean committed = inventoryService.withOptimisticRetry(() -> transactionTemplate.execute(status -> {
+            int updated = stockReservationRepository.transitionStatus(orderNumber, EnumSet.of(ReservationStatus.HELD),
+                    ReservationStatus.COMMITTED, LocalDateTime.now());
+            if (updated == 1) {
+                return true;
+            }
+            // Locked, so two retried commits cannot both take the expired stock again
+            StockReservation reservation = stockReservationRepository.findForUpdateByOrderNumber(orderNumber)
+                    .orElseThrow(() -> new RuntimeException("Reservation not found for order: " + orderNumber));
+            if (reservation.getStatus() == ReservationStatus.COMMITTED) {
+                return true;
+            }
+            if (reservation.getStatus() != ReservationStatus.EXPIRED) {
+                throw new RuntimeException("Reservation for order " + orderNumber + " is already " + reservation.getStatus());
+            }
+            return reserveExpired(reservation);
+        }));
+        if (Boolean.TRUE.equals(committed)) {
+            log.info("Reservation committed for order {}", orderNumber);
+            return true;
+        }
+        return false;
+    }
+
+    // Lines that an adjust dropped to zero are kept at 0 and have nothing to take
+    private boolean reserveExpired(StockReservation reservation) {
+        List<StockReservationRequest> items = reservation.getLines().stream()
+                .filter(line -> line.getQuantity() > 0)
+                .map(line -> new StockReservationRequest(line.getSkuCode(), line.getQuantity()))
+                .toList();
+        if (!items.isEmpty()) {
+            List<StockReservationResponse> responses = inventoryService.reserveBasket(items);
+            if (!allReserved(responses)) {
+                log.warn("Hold of order {} expired before its commit and the stock is gone: {}",
+                        reservation.getOrderNumber(), notReservedResponse(responses).getShortSkuCodes());
+                return false;
+            }
+        }
+        reservation.setStatus(ReservationStatus.COMMITTED);
+        reservation.setUpdatedAt(LocalDateTime.now());
+        log.info("Hold of order {} expired before its commit and was taken again", reservation.getOrderNumber());
+        return true;
+    }
+
+    @LogOperation(operation = "STOCK_RESERVATION_RELEASED", description = "Stok rezervasyonu iade edildi")
+    public void release(String orderNumber) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Status flip first, so two concurrent releases cannot give the stock back twice
+            int updated = stockReservationRepository.transitionStatus(orderNumber,
+                    EnumSet.of(ReservationStatus.HELD, ReservationStatus.COMMITTED), ReservationStatus.RELEASED, LocalDateTime.now());
+            if (updated == 0) {
+                log.info("Nothing to release for order {}", orderNumber);
+                return;
+            }
+            StockReservation reservation = stockReservationRepository.findByOrderNumber(orderNumber).orElseThrow();
+            inventoryService.restock(quantityBySku(List.of(reservation)));
+            log.info("Reservation released for order {}", orderNumber);
+        });
+    }
+
+    /**
+     * Gives the stock of timed out holds back in batches. Each batch is one index range
+     * read on (status, expires_at), one UPDATE per distinct SKU and one status UPDATE.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void releaseExpiredReservations() {
+        int totalExpired = 0;
+        int expiredInBatch;
+        do {
+            Integer batchResult = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> expiredIds = stockReservationRepository.findIdsByStatusAndExpiresAtBefore(
+                        ReservationStatus.HELD, now, Limit.of(sweepBatchSize));
+                if (expiredIds.isEmpty()) {
+                    return 0;
+                }
+                // Re-read under lock, a commit may have won the race since the id scan
+                List<StockReservation> expired = stockReservationRepository.findByIdInAndStatus(expiredIds, ReservationStatus.HELD);
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+                inventoryService.restock(quantityBySku(expired));
+                stockReservationRepository.updateStatus(expired.stream().map(StockReservation::getId).toList(),
+                        ReservationStatus.EXPIRED, now);
+                return expired.size();
+            });
+            expiredInBatch = batchResult == null ? 0 : batchResult;
+            totalExpired += expiredInBatch;
+        } while (expiredInBatch == sweepBatchSize);
+
+        if (totalExpired > 0) {
+            log.info("Released {} expired stock reservations", totalExpired);
+        }
+    }
+
+    private Map<String, Integer> quantityBySku(List<StockReservation> reservations) {
+        Map<String, Integer> quantityBySku = new HashMap<>();
+        for (StockReservation reservation : reservations) {
+            for (StockReservationLine line : reservation.getLines()) {
+                quantityBySku.merge(line.getSkuCode(), line.getQuantity(), Integer::sum);
+            }
+        }
+        return quantityBySku;
+    }
+
+    // Same SKU on several lines is held as one line, like reserveBasket sums it
+    private StockReservation heldReservation(String orderNumber, List<StockReservationRequest> items, LocalDateTime now) {
+        Map<String, Integer> quantityBySku = InventoryService.requestedBySku(items);
+        return StockReservation.builder()
+                .orderNumber(orderNumber)
+                .lines(quantityBySku.entrySet().stream()
+                        .map(entry -> StockReservationLine.builder()
+                                .skuCode(entry.getKey())
+                                .quantity(entry.getValue())
+                                .build())
+                        .toList())
+                .status(ReservationStatus.HELD)
+                .expiresAt(now.plus(reservationTtl))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    // Only the reserved flags say whether stock was taken; remaining quantities are re-read afterwards and may have moved
+    private boolean allReserved(List<StockReservationResponse> responses) {
+        return responses.stream().allMatch(StockReservationResponse::isReserved);
+    }
+
+    private TryReserveResponse notReservedResponse(List<StockReservationResponse> responses) {
+        return TryReserveResponse.builder()
+                .reserved(false)
+                .shortSkuCodes(responses.stream()
+                        .filter(response -> !response.isReserved() && !InventoryService.HELD_BACK_MESSAGE.equals(response.getMessage()))
+                        .map(StockReservationResponse::getSkuCode)
+                        .toList())
+                .build();
+    }
+
+    // One finished order must not fail the whole batch, so it is reported instead of thrown
+    private TryReserveResponse bulkExistingReservationResponse(StockReservation reservation) {
+        if (reservation.getStatus() == ReservationStatus.HELD || reservation.getStatus() == ReservationStatus.COMMITTED) {
+            return reservedResponse(reservation);
+        }
+        return TryReserveResponse.builder()
+                .reserved(false)
+                .shortSkuCodes(List.of())
+                .build();
+    }
+
+    private TryReserveResponse existingReservationResponse(StockReservation reservation) {
+        if (reservation.getStatus() == ReservationStatus.HELD || reservation.getStatus() == ReservationStatus.COMMITTED) {
+            return reservedResponse(reservation);
+        }
+        throw new RuntimeException("Reservation for order " + reservation.getOrderNumber() + " is already " + reservation.getStatus());
+    }
+
+    private TryReserveResponse reservedResponse(StockReservation reservation) {
+        return TryReserveResponse.builder()
+                .reserved(true)
+                .reservationId(reservation.getOrderNumber())
+                .expiresAt(reservation.getExpiresAt())
+                .shortSkuCodes(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.dto.StockReservationRequest;
+import com.feritbilgi.inventory_service.model.Inventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory part of a basket reservation for baskets of 10 to 500 lines, every SKU on two
+ * lines: each line against a list of the rows (nested loop, which also lets two lines pass
+ * against the same stock) against requestedBySku plus one map lookup per SKU, as reserveBasket
+ * does. Run the main method from the test classpath (not part of mvn test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasketCheckBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int lines;
+
+    private List<StockReservationRequest> basket;
+    private List<Inventory> rows;
+    private Map<String, Inventory> rowsBySku;
+
+    @Setup
+    public void setUp() {
+        int skuCount = lines / 2;
+        basket = new ArrayList<>(lines);
+        rows = new ArrayList<>(skuCount);
+        rowsBySku = new HashMap<>();
+        for (int i = 0; i < lines; i++) {
+            basket.add(new StockReservationRequest("sku-" + (i % skuCount), 1));
+        }
+        for (int i = skuCount - 1; i >= 0; i--) {
+            // Reversed, so the nested loop has to walk half of the rows on average
+            Inventory row = Inventory.builder().skuCode("sku-" + i).quantity(100).build();
+            rows.add(row);
+            rowsBySku.put(row.getSkuCode(), row);
+        }
+    }
+
+    @Benchmark
+    public boolean nestedLoop() {
+        for (StockReservationRequest item : basket) {
+            boolean itemInStock = false;
+            for (Inventory row : rows) {
+                if (row.getSkuCode().equals(item.getSkuCode()) && row.getQuantity() >= item.getQuantity()) {
+                    itemInStock = true;
+                    break;
+                }
+            }
+            if (!itemInStock) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean skuKeyed() {
+        for (Map.Entry<String, Integer> entry : InventoryService.requestedBySku(basket).entrySet()) {
+            Inventory row = rowsBySku.get(entry.getKey());
+            if (row == null || row.getQuantity() < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BasketCheckBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,201 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.model.Inventory;
+import com.feritbilgi.inventory_service.model.LedgerCheckpoint;
+import com.feritbilgi.inventory_service.repository.InventoryRepository;
+import com.feritbilgi.inventory_service.repository.LedgerCheckpointRepository;
+import com.feritbilgi.inventory_service.repository.LedgerOwnerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Flushes and ownership claims commit like they do in production
+class HotStockLedgerTests {
+
+    // Only the JPA slice; the application class would start Eureka, the ledger and the aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Inventory.class)
+    @EnableJpaRepositories(basePackageClasses = InventoryRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private LedgerOwnerRepository ledgerOwnerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path journalDirectory;
+
+    private final List<HotStockLedger> startedLedgers = new ArrayList<>();
+    private String skuCode;
+    private String nodeId;
+
+    @BeforeEach
+    void setUp() {
+        // Checkpoints and owners stay in the shared database, so every test gets its own SKU and node
+        skuCode = "hot-" + UUID.randomUUID();
+        nodeId = "node-" + UUID.randomUUID();
+        inventoryRepository.save(Inventory.builder().skuCode(skuCode).quantity(10).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        startedLedgers.forEach(HotStockLedger::shutdown);
+    }
+
+    @Test
+    void startReplaysJournalSegmentsThatWereNeverFlushed() {
+        StockLedgerJournal crashed = new StockLedgerJournal(journalDirectory.resolve(nodeId), false);
+        crashed.open(0);
+        crashed.append(skuCode, -3);
+        crashed.append(skuCode, -2);
+        crashed.close();
+
+        start(ledger(nodeId, journalDirectory));
+
+        assertEquals(5, quantity());
+        assertEquals(0L, ledgerCheckpointRepository.findById(nodeId).orElseThrow().getLastFlushedSegment());
+        assertEquals(List.of(1L), new StockLedgerJournal(journalDirectory.resolve(nodeId), false).existingSegments());
+    }
+
+    @Test
+    void startSkipsSegmentsCoveredByTheCheckpoint() {
+        // Segment 1 reached the table before the crash, segment 2 did not
+        ledgerCheckpointRepository.save(new LedgerCheckpoint(nodeId, 1L, LocalDateTime.now()));
+        StockLedgerJournal crashed = new StockLedgerJournal(journalDirectory.resolve(nodeId), false);
+        crashed.open(1);
+        crashed.append(skuCode, -3);
+        crashed.rotate();
+        crashed.append(skuCode, -4);
+        crashed.close();
+
+        start(ledger(nodeId, journalDirectory));
+
+        assertEquals(6, quantity());
+        assertEquals(2L, ledgerCheckpointRepository.findById(nodeId).orElseThrow().getLastFlushedSegment());
+    }
+
+    @Test
+    void flushWritesReservationsToTheTable() {
+        HotStockLedger ledger = start(ledger(nodeId, journalDirectory));
+        ledger.enable(skuCode);
+
+        assertEquals(HotStockLedger.ReserveResult.RESERVED, ledger.tryReserve(skuCode, 4));
+        assertEquals(HotStockLedger.ReserveResult.INSUFFICIENT, ledger.tryReserve(skuCode, 7));
+        ledger.flush();
+
+        assertEquals(6, ledger.available(skuCode));
+        assertEquals(6, quantity());
+    }
+
+    @Test
+    void failedJournalWriteLeavesTheCounterUntouched() {
+        HotStockLedger ledger = start(ledger(nodeId, journalDirectory));
+        ledger.enable(skuCode);
+        StockLedgerJournal healthy = (StockLedgerJournal) ReflectionTestUtils.getField(ledger, "journal");
+        ReflectionTestUtils.setField(ledger, "journal", new StockLedgerJournal(journalDirectory.resolve("broken"), false) {
+            @Override
+            void append(String skuCode, int delta) {
+                throw new UncheckedIOException("Ledger journal write failed", new IOException("No space left on device"));
+            }
+        });
+
+        assertThrows(UncheckedIOException.class, () -> ledger.tryReserve(skuCode, 4));
+        assertThrows(UncheckedIOException.class, () -> ledger.add(skuCode, 5));
+        assertEquals(10, ledger.available(skuCode));
+
+        ReflectionTestUtils.setField(ledger, "journal", healthy);
+        ledger.flush();
+        assertEquals(10, quantity());
+    }
+
+    @Test
+    void onlyOneInstanceCanTrackASku() {
+        HotStockLedger owner = start(ledger(nodeId, journalDirectory));
+        HotStockLedger other = start(ledger("other-" + nodeId, journalDirectory));
+        owner.enable(skuCode);
+
+        assertThrows(RuntimeException.class, () -> other.enable(skuCode));
+        other.refreshForeignOwners();
+        assertEquals(nodeId, other.foreignOwner(skuCode));
+        owner.refreshForeignOwners();
+        assertNull(owner.foreignOwner(skuCode));
+
+        // Switching off flushes the last deltas and gives the SKU up in the same transaction
+        owner.tryReserve(skuCode, 3);
+        owner.disable(skuCode);
+        assertEquals(7, quantity());
+        other.refreshForeignOwners();
+        assertNull(other.foreignOwner(skuCode));
+
+        other.enable(skuCode);
+        assertTrue(other.isTracked(skuCode));
+        assertEquals(7, other.available(skuCode));
+    }
+
+    @Test
+    void startFailsWithoutAUniqueNodeId() {
+        assertThrows(IllegalStateException.class, () -> ledger("", journalDirectory).start());
+        assertThrows(IllegalStateException.class, () -> ledger(null, journalDirectory).start());
+        // The old default: every instance of the service would share it
+        assertThrows(IllegalStateException.class, () -> ledger("inventory-service", journalDirectory).start());
+    }
+
+    private HotStockLedger ledger(String nodeId, Path directory) {
+        HotStockLedger ledger = new HotStockLedger(inventoryRepository, ledgerCheckpointRepository, ledgerOwnerRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "configuredHotSkus", List.of());
+        ReflectionTestUtils.setField(ledger, "journalDirectory", directory.toString());
+        ReflectionTestUtils.setField(ledger, "journalFsync", false);
+        ReflectionTestUtils.setField(ledger, "nodeId", nodeId);
+        ReflectionTestUtils.setField(ledger, "applicationName", "inventory-service");
+        return ledger;
+    }
+
+    private HotStockLedger start(HotStockLedger ledger) {
+        ledger.start();
+        startedLedgers.add(ledger);
+        return ledger;
+    }
+
+    private int quantity() {
+        return inventoryRepository.findBySkuCode(skuCode).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1,176 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.dto.StockReservationResponse;
+import com.feritbilgi.inventory_service.model.Inventory;
+import com.feritbilgi.inventory_service.model.InventoryStatus;
+import com.feritbilgi.inventory_service.model.StockReservationMode;
+import com.feritbilgi.inventory_service.repository.InventoryRepository;
+import com.feritbilgi.inventory_service.repository.LedgerCheckpointRepository;
+import com.feritbilgi.inventory_service.repository.LedgerOwnerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flash-sale load on a single SKU: many threads reserve the same row at once and the
+ * stock must neither go negative nor lose a decrement, in both reservation modes.
+ */
+@DataJpaTest(properties = {
+        // Writers of the hot row wait for each other instead of failing on H2's 1s default lock timeout
+        "spring.datasource.url=jdbc:h2:mem:inventory-concurrency;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every reservation commits on its own, like in production
+class InventoryServiceConcurrencyTests {
+
+    private static final int STOCK = 100;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    // Only the JPA slice; the application class would start Eureka, the ledger and the aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Inventory.class)
+    @EnableJpaRepositories(basePackageClasses = InventoryRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private LedgerOwnerRepository ledgerOwnerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryService inventoryService;
+    private String skuCode;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // Ledger stays disabled, so every reservation goes to the table
+        HotStockLedger hotStockLedger = new HotStockLedger(inventoryRepository, ledgerCheckpointRepository, ledgerOwnerRepository,
+                transactionTemplate, new SimpleMeterRegistry());
+        inventoryService = new InventoryService(inventoryRepository, transactionTemplate, hotStockLedger);
+
+        skuCode = "flash-" + UUID.randomUUID();
+        inventoryRepository.save(Inventory.builder().skuCode(skuCode).quantity(STOCK).build());
+    }
+
+    @Test
+    void conditionalDecrementNeverOversells() throws Exception {
+        ReflectionTestUtils.setField(inventoryService, "reservationMode", StockReservationMode.CONDITIONAL);
+
+        Result result = reserveConcurrently();
+
+        assertEquals(0, result.failures(), "conditional UPDATE must not throw under contention");
+        assertEquals(STOCK, result.reserved());
+        Inventory inventory = inventoryRepository.findBySkuCode(skuCode).orElseThrow();
+        assertEquals(0, inventory.getQuantity());
+        assertEquals(InventoryStatus.OUT_OF_STOCK, inventory.getStatus());
+    }
+
+    @Test
+    void decrementIfAvailableRejectsWhenShort() {
+        assertEquals(0, inventoryRepository.decrementIfAvailable(skuCode, STOCK + 1, LocalDateTime.now()));
+        assertEquals(1, inventoryRepository.decrementIfAvailable(skuCode, STOCK, LocalDateTime.now()));
+        assertEquals(0, inventoryRepository.decrementIfAvailable(skuCode, 1, LocalDateTime.now()));
+        assertEquals(0, inventoryRepository.findBySkuCode(skuCode).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void nonPositiveQuantitiesNeverAddStock() {
+        assertEquals(0, inventoryRepository.decrementIfAvailable(skuCode, -STOCK, LocalDateTime.now()));
+        assertEquals(0, inventoryRepository.decrementIfAvailable(skuCode, 0, LocalDateTime.now()));
+
+        for (StockReservationMode mode : StockReservationMode.values()) {
+            ReflectionTestUtils.setField(inventoryService, "reservationMode", mode);
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> inventoryService.reserve(skuCode, -5));
+            assertEquals("Quantity of " + skuCode + " must be positive", exception.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> inventoryService.reserve(skuCode, 0));
+        }
+        assertEquals(STOCK, inventoryRepository.findBySkuCode(skuCode).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void optimisticRetryNeverOversellsOrLosesDecrements() throws Exception {
+        ReflectionTestUtils.setField(inventoryService, "reservationMode", StockReservationMode.OPTIMISTIC);
+        ReflectionTestUtils.setField(inventoryService, "optimisticMaxAttempts", 50);
+
+        Result result = reserveConcurrently();
+
+        int quantity = inventoryRepository.findBySkuCode(skuCode).orElseThrow().getQuantity();
+        assertTrue(quantity >= 0, "stock went negative: " + quantity);
+        // Every successful reservation took exactly one unit, nothing was overwritten by a concurrent save
+        assertEquals(STOCK, result.reserved() + quantity);
+        assertTrue(result.reserved() > 0);
+    }
+
+    private Result reserveConcurrently() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            StockReservationResponse response = inventoryService.reserve(skuCode, 1);
+                            if (response.isReserved()) {
+                                reserved.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet(); // Optimistic mode gives up after max attempts
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(reserved.get(), failures.get());
+    }
+
+    private record Result(int reserved, int failures) {
+    }
+}
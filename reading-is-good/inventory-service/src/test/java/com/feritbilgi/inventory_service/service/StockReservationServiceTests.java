@@ -0,0 +1,399 @@
+package com.feritbilgi.inventory_service.service;
+
+import com.feritbilgi.inventory_service.dto.StockReservationRequest;
+import com.feritbilgi.inventory_service.dto.TryReserveRequest;
+import com.feritbilgi.inventory_service.dto.TryReserveResponse;
+import com.feritbilgi.inventory_service.model.Inventory;
+import com.feritbilgi.inventory_service.model.ReservationStatus;
+import com.feritbilgi.inventory_service.model.StockReservation;
+import com.feritbilgi.inventory_service.model.StockReservationLine;
+import com.feritbilgi.inventory_service.repository.InventoryRepository;
+import com.feritbilgi.inventory_service.repository.LedgerCheckpointRepository;
+import com.feritbilgi.inventory_service.repository.LedgerOwnerRepository;
+import com.feritbilgi.inventory_service.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class StockReservationServiceTests {
+
+    // Only the JPA slice; the application class would start Eureka, the ledger and the aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Inventory.class)
+    @EnableJpaRepositories(basePackageClasses = InventoryRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Autowired
+    private LedgerOwnerRepository ledgerOwnerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        HotStockLedger hotStockLedger = new HotStockLedger(inventoryRepository, ledgerCheckpointRepository, ledgerOwnerRepository,
+                transactionTemplate, new SimpleMeterRegistry());
+        InventoryService inventoryService = new InventoryService(inventoryRepository, transactionTemplate, hotStockLedger);
+        ReflectionTestUtils.setField(inventoryService, "optimisticMaxAttempts", 3);
+
+        stockReservationService = new StockReservationService(inventoryService, stockReservationRepository, transactionTemplate);
+        ReflectionTestUtils.setField(stockReservationService, "reservationTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(stockReservationService, "sweepBatchSize", 2);
+
+        inventoryRepository.save(Inventory.builder().skuCode("sku-a").quantity(10).build());
+        inventoryRepository.save(Inventory.builder().skuCode("sku-b").quantity(10).build());
+    }
+
+    @Test
+    void sweeperReleasesExpiredHolds() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        // Three expired holds with a batch size of two, so the sweeper has to loop
+        reservation("order-1", ReservationStatus.HELD, past, "sku-a", 2);
+        reservation("order-2", ReservationStatus.HELD, past, "sku-a", 3);
+        reservation("order-3", ReservationStatus.HELD, past, "sku-b", 4);
+
+        stockReservationService.releaseExpiredReservations();
+        entityManager.clear();
+
+        assertEquals(15, quantity("sku-a"));
+        assertEquals(14, quantity("sku-b"));
+        assertEquals(ReservationStatus.EXPIRED, status("order-1"));
+        assertEquals(ReservationStatus.EXPIRED, status("order-2"));
+        assertEquals(ReservationStatus.EXPIRED, status("order-3"));
+    }
+
+    @Test
+    void sweeperLeavesCommittedAndUnexpiredReservationsAlone() {
+        reservation("order-committed", ReservationStatus.COMMITTED, LocalDateTime.now().minusMinutes(1), "sku-a", 2);
+        reservation("order-held", ReservationStatus.HELD, LocalDateTime.now().plusMinutes(10), "sku-b", 3);
+
+        stockReservationService.releaseExpiredReservations();
+        entityManager.clear();
+
+        assertEquals(10, quantity("sku-a"));
+        assertEquals(10, quantity("sku-b"));
+        assertEquals(ReservationStatus.COMMITTED, status("order-committed"));
+        assertEquals(ReservationStatus.HELD, status("order-held"));
+    }
+
+    @Test
+    void releaseAfterExpiryDoesNotGiveStockBackTwice() {
+        reservation("order-1", ReservationStatus.HELD, LocalDateTime.now().minusMinutes(1), "sku-a", 2);
+
+        stockReservationService.releaseExpiredReservations();
+        stockReservationService.release("order-1");
+        entityManager.clear();
+
+        assertEquals(12, quantity("sku-a"));
+        assertEquals(ReservationStatus.EXPIRED, status("order-1"));
+    }
+
+    @Test
+    void commitTakesAnExpiredHoldAgain() {
+        reservation("order-1", ReservationStatus.HELD, LocalDateTime.now().minusMinutes(1), "sku-a", 4);
+        stockReservationService.releaseExpiredReservations();
+        entityManager.clear(); // The sweeper's bulk UPDATE bypasses the managed reservation
+
+        assertTrue(stockReservationService.commit("order-1"));
+        // A retried commit neither fails nor takes the stock a second time
+        assertTrue(stockReservationService.commit("order-1"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(10, quantity("sku-a"));
+        assertEquals(ReservationStatus.COMMITTED, status("order-1"));
+    }
+
+    @Test
+    void commitReportsAnExpiredHoldWhoseStockIsGone() {
+        reservation("order-1", ReservationStatus.HELD, LocalDateTime.now().minusMinutes(1), "sku-a", 4);
+        stockReservationService.releaseExpiredReservations();
+        entityManager.clear();
+        // Another order takes the stock the sweeper gave back
+        assertTrue(stockReservationService.tryReserve(tryReserve("order-2", "sku-a", 12)).isReserved());
+
+        assertFalse(stockReservationService.commit("order-1"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, quantity("sku-a"));
+        assertEquals(ReservationStatus.EXPIRED, status("order-1"));
+    }
+
+    @Test
+    void tryReserveIsIdempotentPerOrderNumber() {
+        TryReserveResponse first = stockReservationService.tryReserve(tryReserve("order-1", "sku-a", 4));
+        TryReserveResponse retried = stockReservationService.tryReserve(tryReserve("order-1", "sku-a", 4));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(first.isReserved());
+        assertTrue(retried.isReserved());
+        assertEquals("order-1", retried.getReservationId());
+        assertEquals(first.getExpiresAt(), retried.getExpiresAt());
+        assertEquals(6, quantity("sku-a"));
+        assertEquals(1, stockReservationRepository.count());
+    }
+
+    @Test
+    void tryReserveSumsASkuRepeatedInOneBasket() {
+        // Each line fits on its own, together they do not
+        TryReserveResponse tooMuch = stockReservationService.tryReserve(tryReserve("order-1", "sku-a", 6, "sku-a", 6));
+        TryReserveResponse fits = stockReservationService.tryReserve(tryReserve("order-2", "sku-a", 4, "sku-b", 1, "sku-a", 5));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(tooMuch.isReserved());
+        assertEquals(List.of("sku-a"), tooMuch.getShortSkuCodes());
+        assertFalse(stockReservationRepository.findByOrderNumber("order-1").isPresent());
+        assertTrue(fits.isReserved());
+        assertEquals(1, quantity("sku-a"));
+        assertEquals(9, quantity("sku-b"));
+        StockReservation held = stockReservationRepository.findByOrderNumber("order-2").orElseThrow();
+        assertEquals(2, held.getLines().size());
+        assertEquals(9, held.getLines().stream().filter(line -> line.getSkuCode().equals("sku-a")).findFirst().orElseThrow().getQuantity());
+    }
+
+    @Test
+    void bulkTryReserveSumsASkuRepeatedInOneBasket() {
+        List<TryReserveResponse> responses = stockReservationService.tryReserveAll(List.of(
+                // Each sku-a line fits into 10, together they need 12; sku-b must not be taken for it
+                tryReserve("order-1", "sku-a", 6, "sku-b", 1, "sku-a", 6),
+                tryReserve("order-2", "sku-a", 3, "sku-a", 2)));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(responses.get(0).isReserved());
+        assertEquals(List.of("sku-a"), responses.get(0).getShortSkuCodes());
+        assertTrue(responses.get(1).isReserved());
+        assertEquals(5, quantity("sku-a"));
+        assertEquals(10, quantity("sku-b"));
+        assertEquals(1, stockReservationRepository.findByOrderNumber("order-2").orElseThrow().getLines().size());
+    }
+
+    @Test
+    void missingSkusAreShortInBasketOrder() {
+        TryReserveResponse response = stockReservationService.tryReserve(tryReserve("order-1",
+                "sku-missing-b", 1, "sku-a", 1, "sku-missing-c", 1));
+
+        assertFalse(response.isReserved());
+        assertEquals(List.of("sku-missing-b", "sku-missing-c"), response.getShortSkuCodes());
+        assertEquals(10, quantity("sku-a"));
+    }
+
+    @Test
+    void invalidLinesAreRejectedBeforeAnyStockIsTaken() {
+        // Without the check the -6 line would cancel the 6 and hold nothing for sku-a while taking sku-b
+        IllegalArgumentException negative = assertThrows(IllegalArgumentException.class,
+                () -> stockReservationService.tryReserve(tryReserve("order-1", "sku-a", 6, "sku-b", 2, "sku-a", -6)));
+        assertEquals("Quantity of sku-a must be positive", negative.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> stockReservationService.tryReserve(tryReserve("order-2", "sku-a", 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockReservationService.tryReserve(tryReserve("order-3", "sku-a", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> stockReservationService.tryReserve(tryReserve("order-4", null, 1)));
+        assertThrows(IllegalArgumentException.class, () -> stockReservationService.tryReserveAll(List.of(
+                tryReserve("order-5", "sku-a", 1),
+                tryReserve("order-6", "sku-b", -1))));
+
+        reservation("order-held", ReservationStatus.HELD, LocalDateTime.now().plusMinutes(10), "sku-a", 2);
+        assertThrows(IllegalArgumentException.class, () -> stockReservationService.adjust("order-held",
+                List.of(new StockReservationRequest("sku-a", 0))));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(10, quantity("sku-a"));
+        assertEquals(10, quantity("sku-b"));
+        assertEquals(1, stockReservationRepository.count());
+    }
+
+    @Test
+    void adjustTakesMoreStockAllOrNothing() {
+        reservation("order-1", ReservationStatus.HELD, LocalDateTime.now().plusMinutes(10), "sku-a", 2);
+
+        // sku-b fits, sku-a does not, so neither is taken
+        TryReserveResponse tooMuch = stockReservationService.adjust("order-1", List.of(
+                new StockReservationRequest("sku-b", 3), new StockReservationRequest("sku-a", 11)));
+        TryReserveResponse fits = stockReservationService.adjust("order-1", List.of(
+                new StockReservationRequest("sku-a", 4), new StockReservationRequest("sku-b", 3)));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(tooMuch.isReserved());
+        assertEquals(List.of("sku-a"), tooMuch.getShortSkuCodes());
+        assertTrue(fits.isReserved());
+        assertEquals(6, quantity("sku-a"));
+        assertEquals(7, quantity("sku-b"));
+        assertEquals(6, heldQuantity("order-1", "sku-a"));
+        assertEquals(3, heldQuantity("order-1", "sku-b"));
+    }
+
+    @Test
+    void adjustGivesStockBackForANegativeDelta() {
+        reservation("order-1", ReservationStatus.HELD, LocalDateTime.now().plusMinutes(10), "sku-a", 5);
+
+        assertTrue(stockReservationService.adjust("order-1", List.of(new StockReservationRequest("sku-a", -3))).isReserved());
+        entityManager.flush();
+        entityManager.clear();
+        // Flushed first: the failed adjust marks the test transaction rollback-only, only reads follow it
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> stockReservationService.adjust("order-1", List.of(new StockReservationRequest("sku-a", -3))));
+        entityManager.clear();
+
+        assertEquals("Order order-1 holds only 2 of sku-a", exception.getMessage());
+        assertEquals(13, quantity("sku-a"));
+        assertEquals(2, heldQuantity("order-1", "sku-a"));
+    }
+
+    @Test
+    void adjustChangesCommittedButNotClosedReservations() {
+        reservation("order-committed", ReservationStatus.COMMITTED, LocalDateTime.now().minusMinutes(1), "sku-a", 2);
+        reservation("order-released", ReservationStatus.RELEASED, LocalDateTime.now().plusMinutes(10), "sku-b", 2);
+        reservation("order-expired", ReservationStatus.EXPIRED, LocalDateTime.now().minusMinutes(1), "sku-b", 2);
+
+        assertTrue(stockReservationService.adjust("order-committed", List.of(new StockReservationRequest("sku-a", 1))).isReserved());
+        entityManager.flush();
+        entityManager.clear();
+        RuntimeException released = assertThrows(RuntimeException.class,
+                () -> stockReservationService.adjust("order-released", List.of(new StockReservationRequest("sku-b", 1))));
+        RuntimeException expired = assertThrows(RuntimeException.class,
+                () -> stockReservationService.adjust("order-expired", List.of(new StockReservationRequest("sku-b", -1))));
+        entityManager.clear();
+
+        assertEquals("Reservation for order order-released is already RELEASED", released.getMessage());
+        assertEquals("Reservation for order order-expired is already EXPIRED", expired.getMessage());
+        assertEquals(9, quantity("sku-a"));
+        assertEquals(10, quantity("sku-b"));
+        assertEquals(3, heldQuantity("order-committed", "sku-a"));
+        assertEquals(2, heldQuantity("order-released", "sku-b"));
+    }
+
+    @Test
+    void bulkTryReserveReportsEachOrderInRequestOrder() {
+        List<TryReserveResponse> responses = stockReservationService.tryReserveAll(List.of(
+                tryReserve("order-1", "sku-a", 4),
+                // Short on sku-a once order-1 has its share; sku-b must not be taken for it
+                tryReserve("order-2", "sku-a", 7, "sku-b", 1),
+                tryReserve("order-3", "sku-unknown", 1),
+                tryReserve("order-4", "sku-b", 3, "sku-a", 6)));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(4, responses.size());
+        assertTrue(responses.get(0).isReserved());
+        assertEquals("order-1", responses.get(0).getReservationId());
+        assertFalse(responses.get(1).isReserved());
+        assertEquals(List.of("sku-a"), responses.get(1).getShortSkuCodes());
+        assertFalse(responses.get(2).isReserved());
+        assertEquals(List.of("sku-unknown"), responses.get(2).getShortSkuCodes());
+        assertTrue(responses.get(3).isReserved());
+        assertEquals("order-4", responses.get(3).getReservationId());
+
+        assertEquals(0, quantity("sku-a"));
+        assertEquals(7, quantity("sku-b"));
+        assertEquals(ReservationStatus.HELD, status("order-1"));
+        assertFalse(stockReservationRepository.findByOrderNumber("order-2").isPresent());
+        assertFalse(stockReservationRepository.findByOrderNumber("order-3").isPresent());
+        assertEquals(ReservationStatus.HELD, status("order-4"));
+    }
+
+    @Test
+    void bulkTryReserveDoesNotTakeStockTwiceForRetriedOrders() {
+        reservation("order-held", ReservationStatus.HELD, LocalDateTime.now().plusMinutes(10), "sku-a", 2);
+        reservation("order-released", ReservationStatus.RELEASED, LocalDateTime.now().plusMinutes(10), "sku-a", 2);
+
+        List<TryReserveResponse> responses = stockReservationService.tryReserveAll(List.of(
+                tryReserve("order-released", "sku-a", 2),
+                tryReserve("order-new", "sku-b", 5),
+                tryReserve("order-held", "sku-a", 2)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // A finished order is reported, not thrown, so the rest of the batch still goes through
+        assertFalse(responses.get(0).isReserved());
+        assertEquals(List.of(), responses.get(0).getShortSkuCodes());
+        assertTrue(responses.get(1).isReserved());
+        assertTrue(responses.get(2).isReserved());
+        assertEquals("order-held", responses.get(2).getReservationId());
+
+        assertEquals(10, quantity("sku-a"));
+        assertEquals(5, quantity("sku-b"));
+        assertEquals(ReservationStatus.RELEASED, status("order-released"));
+    }
+
+    private TryReserveRequest tryReserve(String orderNumber, Object... skuCodesAndQuantities) {
+        List<StockReservationRequest> items = new ArrayList<>();
+        for (int i = 0; i < skuCodesAndQuantities.length; i += 2) {
+            items.add(new StockReservationRequest((String) skuCodesAndQuantities[i], (Integer) skuCodesAndQuantities[i + 1]));
+        }
+        return new TryReserveRequest(orderNumber, items);
+    }
+
+    private void reservation(String orderNumber, ReservationStatus status, LocalDateTime expiresAt, String skuCode, int quantity) {
+        List<StockReservationLine> lines = new ArrayList<>();
+        lines.add(StockReservationLine.builder().skuCode(skuCode).quantity(quantity).build());
+        stockReservationRepository.save(StockReservation.builder()
+                .orderNumber(orderNumber)
+                .lines(lines)
+                .status(status)
+                .expiresAt(expiresAt)
+                .createdAt(expiresAt.minusMinutes(15))
+                .updatedAt(expiresAt.minusMinutes(15))
+                .build());
+        entityManager.flush();
+    }
+
+    private int heldQuantity(String orderNumber, String skuCode) {
+        return stockReservationRepository.findByOrderNumber(orderNumber).orElseThrow().getLines().stream()
+                .filter(line -> line.getSkuCode().equals(skuCode))
+                .mapToInt(StockReservationLine::getQuantity)
+                .sum();
+    }
+
+    private int quantity(String skuCode) {
+        return inventoryRepository.findBySkuCode(skuCode).orElseThrow().getQuantity();
+    }
+
+    private ReservationStatus status(String orderNumber) {
+        return stockReservationRepository.findByOrderNumber(orderNumber).orElseThrow().getStatus();
+    }
+}
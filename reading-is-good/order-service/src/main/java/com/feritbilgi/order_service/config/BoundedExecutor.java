@@ -0,0 +1,77 @@
+package com.feritbilgi.order_service.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on the delegate executor but lets at most maxConcurrency of them run at once.
+ * The permit is taken inside the task, so callers never block; with virtual threads the
+ * waiting tasks cost almost nothing.
+ */
+public class BoundedExecutor implements Executor, AutoCloseable {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+
+    public BoundedExecutor(Executor delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    // A plain Runnable has no way to report the interrupt, prefer supplyAsync when a result is awaited
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an order placement slot", e);
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Like CompletableFuture.supplyAsync on this executor, except that a task interrupted while
+     * waiting for its permit still completes the future (exceptionally) instead of leaving it open.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(new IllegalStateException("Interrupted while waiting for an order placement slot", e));
+                return;
+            }
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        return future;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof ExecutorService executorService) {
+            executorService.shutdown(); // No-op for the common pool
+        }
+    }
+}
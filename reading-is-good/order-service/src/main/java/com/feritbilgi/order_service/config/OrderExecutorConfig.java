@@ -0,0 +1,36 @@
+package com.feritbilgi.order_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@Slf4j
+public class OrderExecutorConfig {
+
+    // placeOrder blocks on inventory-service calls, so by default it gets its own virtual threads
+    // instead of the shared ForkJoin common pool (size = cores - 1)
+    @Bean(destroyMethod = "close")
+    public BoundedExecutor orderPlacementExecutor(@Value("${order.placement.executor:virtual}") String executorType,
+                                                  @Value("${order.placement.max-concurrency:1000}") int maxConcurrency) {
+        if ("common-pool".equals(executorType)) {
+            log.warn("Order placement runs on the ForkJoin common pool");
+            return new BoundedExecutor(ForkJoinPool.commonPool(), maxConcurrency);
+        }
+        return new BoundedExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-placement-", 0).factory()),
+                maxConcurrency);
+    }
+
+    // JPA is blocking, so the reactive order flow hands the save to a few threads sized like the connection pool
+    @Bean(destroyMethod = "dispose")
+    public Scheduler orderPersistenceScheduler(@Value("${order.persistence.scheduler-threads:10}") int threads,
+                                               @Value("${order.persistence.scheduler-queue-size:10000}") int queueSize) {
+        return Schedulers.newBoundedElastic(threads, queueSize, "order-persistence");
+    }
+}
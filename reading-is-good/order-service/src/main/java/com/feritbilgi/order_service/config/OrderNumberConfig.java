@@ -0,0 +1,40 @@
+package com.feritbilgi.order_service.config;
+
+import com.feritbilgi.order_service.service.OrderNumberGenerator;
+import com.feritbilgi.order_service.service.TimeOrderedOrderNumberGenerator;
+import com.feritbilgi.order_service.service.UuidOrderNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@Configuration
+@Slf4j
+public class OrderNumberConfig {
+
+    // time-ordered (default) or uuid
+    @Bean
+    public OrderNumberGenerator orderNumberGenerator(@Value("${order.number.generator:time-ordered}") String generatorType,
+                                                     @Value("${order.number.node-id:-1}") int nodeId) {
+        if ("uuid".equals(generatorType)) {
+            return new UuidOrderNumberGenerator();
+        }
+        return new TimeOrderedOrderNumberGenerator(nodeId >= 0 ? nodeId : derivedNodeId());
+    }
+
+    // Every instance needs its own node id; this fallback only makes a clash unlikely
+    private int derivedNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        int nodeId = Math.floorMod((host + ":" + ProcessHandle.current().pid()).hashCode(), 1024);
+        log.warn("order.number.node-id is not set, using node id {} derived from host and pid", nodeId);
+        return nodeId;
+    }
+}
@@ -1,5 +1,7 @@
 package com.feritbilgi.order_service.config;
 
+import com.feritbilgi.shared.config.HttpClientPoolProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,4 +15,19 @@ public class WebClientConfig {
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
-} 
\ No newline at end of file
+
+    @Bean
+    @ConfigurationProperties("http.client.inventory")
+    public HttpClientPoolProperties inventoryClientPool() {
+        return new HttpClientPoolProperties();
+    }
+
+    // One client for all inventory calls; clone() keeps the load balancer filter of the builder
+    @Bean
+    public WebClient inventoryWebClient(WebClient.Builder webClientBuilder, HttpClientPoolProperties inventoryClientPool) {
+        return webClientBuilder.clone()
+                .baseUrl("http://inventory-service")
+                .clientConnector(inventoryClientPool.createConnector("inventory-service"))
+                .build();
+    }
+}
@@ -1,17 +1,36 @@
 package com.feritbilgi.order_service.controller;
 
+import com.feritbilgi.order_service.config.BoundedExecutor;
+import com.feritbilgi.order_service.dto.CustomerOrderSummaryPageResponse;
+import com.feritbilgi.order_service.dto.OrderPageResponse;
 import com.feritbilgi.order_service.dto.OrderRequest;
+import com.feritbilgi.order_service.dto.OrderStatisticsResponse;
+import com.feritbilgi.order_service.dto.OrderStatusRequest;
+import com.feritbilgi.order_service.dto.OrderStatusResponse;
+import com.feritbilgi.order_service.service.CustomerOrderHistoryService;
+import com.feritbilgi.order_service.service.IdempotencyStore;
+import com.feritbilgi.order_service.service.OrderBulkImportService;
+import com.feritbilgi.order_service.service.OrderExportService;
 import com.feritbilgi.order_service.service.OrderService;
+import com.feritbilgi.order_service.service.OrderStatusService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -20,39 +39,131 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderExportService orderExportService;
+    private final OrderBulkImportService orderBulkImportService;
+    private final OrderStatusService orderStatusService;
+    private final CustomerOrderHistoryService customerOrderHistoryService;
+    private final BoundedExecutor orderPlacementExecutor;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @CircuitBreaker(name = "inventory", fallbackMethod = "fallbackMethod")
     @TimeLimiter(name = "inventory")
-    public CompletableFuture<String> placeOrder(@RequestBody OrderRequest orderRequest, @AuthenticationPrincipal Jwt jwt) {
+    public CompletableFuture<String> placeOrder(@RequestBody OrderRequest orderRequest, @AuthenticationPrincipal Jwt jwt,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("New order placed by customer: {}", jwt.getSubject());
         // For now, use a default customer ID since JWT contains Keycloak UUID
         // In production, you should map Keycloak user ID to customer ID
         orderRequest.setCustomerId(1L); // Default customer ID
-        return CompletableFuture.supplyAsync(() -> orderService.placeOrder(orderRequest));
+        if (idempotencyKey == null) {
+            return orderPlacementExecutor.supplyAsync(() -> orderService.placeOrder(orderRequest));
+        }
+        // A retried submission with the same key gets the first result instead of a second order
+        return idempotencyStore.execute(jwt.getSubject() + ":" + idempotencyKey,
+                () -> orderPlacementExecutor.supplyAsync(() -> orderService.placeOrder(orderRequest)));
+    }
+
+    // Same parameters as placeOrder plus the exception; Throwable so TimeLimiter timeouts land here too
+    public CompletableFuture<String> fallbackMethod(OrderRequest orderRequest, Jwt jwt, String idempotencyKey, Throwable throwable){
+        return CompletableFuture.completedFuture("Ooops! Something went wrong, please order after some time!");
+    }
+
+    @PostMapping("/reactive")
+    @ResponseStatus(HttpStatus.CREATED)
+    @CircuitBreaker(name = "inventory", fallbackMethod = "reactiveFallbackMethod")
+    @TimeLimiter(name = "inventory")
+    public Mono<String> placeOrderReactive(@RequestBody OrderRequest orderRequest, @AuthenticationPrincipal Jwt jwt,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("New reactive order placed by customer: {}", jwt.getSubject());
+        orderRequest.setCustomerId(1L); // Default customer ID
+        if (idempotencyKey == null) {
+            return orderService.placeOrderReactive(orderRequest);
+        }
+        return Mono.fromFuture(() -> idempotencyStore.execute(jwt.getSubject() + ":" + idempotencyKey,
+                () -> orderService.placeOrderReactive(orderRequest).toFuture()), true);
     }
 
-    public CompletableFuture<String> fallbackMethod(OrderRequest orderRequest, RuntimeException runtimeException){
-        return CompletableFuture.supplyAsync(() -> "Ooops! Something went wrong, please order after some time!");
+    public Mono<String> reactiveFallbackMethod(OrderRequest orderRequest, Jwt jwt, String idempotencyKey, Throwable throwable){
+        return Mono.just("Ooops! Something went wrong, please order after some time!");
+    }
+
+    /**
+     * Bulk import for institutional customers: NDJSON in (one order per line), NDJSON report out
+     * (one result per order, in request order). Orders without customerId get the caller's.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importOrders(HttpServletRequest request, @AuthenticationPrincipal Jwt jwt) throws IOException {
+        log.info("Bulk order import started by customer: {}", jwt.getSubject());
+        Long customerId = 1L; // Default customer ID
+        InputStream ndjson = request.getInputStream();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> orderBulkImportService.importOrders(ndjson, customerId, outputStream));
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<com.feritbilgi.order_service.model.Order> getAllOrders() {
-        log.info("Getting all orders");
-        return orderService.getAllOrders();
+    public OrderPageResponse getAllOrders(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        log.info("Getting orders page");
+        return orderService.getOrders(cursor, limit);
+    }
+
+    @GetMapping("/customer/my-orders")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderPageResponse getMyOrders(@AuthenticationPrincipal Jwt jwt,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit) {
+        // Use default customer ID since JWT contains UUID
+        Long customerId = 1L; // Default customer ID
+        log.info("Getting orders for customer: {}", customerId);
+        return orderService.getOrdersByCustomerId(customerId, cursor, limit);
     }
 
-                    @GetMapping("/customer/my-orders")
-                @ResponseStatus(HttpStatus.OK)
-                public List<com.feritbilgi.order_service.model.Order> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
-                    // Use default customer ID since JWT contains UUID
-                    Long customerId = 1L; // Default customer ID
-                    log.info("Getting orders for customer: {}", customerId);
-                    return orderService.getOrdersByCustomerId(customerId);
-                }
+    /**
+     * Order history from the customer read model; one index range read per page.
+     */
+    @GetMapping("/customer/my-orders/summary")
+    @ResponseStatus(HttpStatus.OK)
+    public CustomerOrderSummaryPageResponse getMyOrderHistory(@AuthenticationPrincipal Jwt jwt,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        Long customerId = 1L; // Default customer ID
+        log.info("Getting order history for customer: {}", customerId);
+        return customerOrderHistoryService.getHistory(customerId, cursor, limit);
+    }
+
+    /**
+     * Streams orders as NDJSON (one order per line) for bulk consumers, filterable by customer
+     * and a createdAt range [from, to).
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Exporting orders (customer: {}, from: {}, to: {})", customerId, from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> orderExportService.exportOrders(customerId, from, to, outputStream));
+    }
+
+    /**
+     * Order/book count and amount of a customer in [from, to), used by statistics-service.
+     */
+    @GetMapping("/statistics")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderStatisticsResponse getStatistics(
+            @RequestParam Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Getting order statistics (customer: {}, from: {}, to: {})", customerId, from, to);
+        return orderService.getStatistics(customerId, from, to);
+    }
 
     @PutMapping("/{orderId}")
     @ResponseStatus(HttpStatus.OK)
@@ -61,10 +172,39 @@ public class OrderController {
         return orderService.updateOrder(orderId, orderRequest);
     }
 
+    @PatchMapping("/{orderId}/status")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderStatusResponse transitionStatus(@PathVariable Long orderId, @RequestBody OrderStatusRequest orderStatusRequest) {
+        log.info("Moving order {} to {}", orderId, orderStatusRequest.getStatus());
+        return orderStatusService.transition(orderId, orderStatusRequest.getStatus());
+    }
+
+    // Many orders at once (e.g. a shipping batch); invalid ones are reported, not failed
+    @PostMapping("/status")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderStatusResponse transitionStatuses(@RequestBody OrderStatusRequest orderStatusRequest) {
+        log.info("Moving {} orders to {}", orderStatusRequest.getOrderIds().size(), orderStatusRequest.getStatus());
+        return orderStatusService.transitionAll(orderStatusRequest.getOrderIds(), orderStatusRequest.getStatus());
+    }
+
     @GetMapping("/{orderId}")
     @ResponseStatus(HttpStatus.OK)
     public com.feritbilgi.order_service.model.Order getOrderById(@PathVariable Long orderId) {
         log.info("Getting order by id: {}", orderId);
         return orderService.getOrderById(orderId);
     }
+
+    @GetMapping("/number/{orderNumber}")
+    @ResponseStatus(HttpStatus.OK)
+    public com.feritbilgi.order_service.model.Order getOrderByNumber(@PathVariable String orderNumber) {
+        log.info("Getting order by number: {}", orderNumber);
+        return orderService.getOrderByNumber(orderNumber);
+    }
+
+    // Invalid order input (e.g. a non-positive quantity) is the caller's fault, not a server error
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
 }
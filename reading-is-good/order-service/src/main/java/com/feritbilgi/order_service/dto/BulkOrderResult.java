@@ -0,0 +1,25 @@
+package com.feritbilgi.order_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of the bulk import report, written for every order of the request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOrderResult {
+    private long line; // 1-based position of the order in the request
+    private String orderNumber;
+    private String status; // CREATED, REJECTED or FAILED
+    private String message;
+    private List<String> shortSkuCodes;
+}
@@ -0,0 +1,18 @@
+package com.feritbilgi.order_service.dto;
+
+import com.feritbilgi.order_service.model.CustomerOrderSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerOrderSummaryPageResponse {
+    private List<CustomerOrderSummary> orders;
+    private String nextCursor; // Opaque token for the next page, null on the last page
+}
@@ -0,0 +1,22 @@
+package com.feritbilgi.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatisticsResponse {
+    private Long customerId;
+    private LocalDateTime from;
+    private LocalDateTime to; // Exclusive
+    private long orderCount;
+    private long bookCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,18 @@
+package com.feritbilgi.order_service.dto;
+
+import com.feritbilgi.order_service.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusRequest {
+    private List<Long> orderIds; // Only used by the bulk endpoint
+    private OrderStatus status;
+}
@@ -0,0 +1,20 @@
+package com.feritbilgi.order_service.dto;
+
+import com.feritbilgi.order_service.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusResponse {
+    private OrderStatus status;
+    private List<Long> transitionedOrderIds;
+    private Map<Long, String> rejectedOrderIds; // Order id -> why it was not moved
+}
@@ -9,9 +9,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class InventoryResponse {
-    private Long id;
+public class StockReservationRequest { //To send to the inventory-service
     private String skuCode;
     private Integer quantity;
-    private String status;
-}
\ No newline at end of file
+}
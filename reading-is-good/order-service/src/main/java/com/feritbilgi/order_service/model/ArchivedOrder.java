@@ -0,0 +1,57 @@
+package com.feritbilgi.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A closed order moved out of t_orders. The order with its line items is kept as gzipped
+ * JSON; the columns next to it are only what lookups and listings need.
+ */
+@Entity
+@Table(name = "t_order_archive", indexes = {
+        @Index(name = "uk_order_archive_order_number", columnList = "order_number", unique = true),
+        // Customer statistics sum archived orders from this index alone
+        @Index(name = "idx_order_archive_customer_created_at", columnList = "customer_id, created_at, total_amount, book_count")
+})
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedOrder {
+    // Id of the original order, so an archived order keeps answering GET /api/order/{orderId}
+    @Id
+    private Long id;
+
+    @Column(name = "order_number", nullable = false)
+    private String orderNumber;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private BigDecimal totalAmount;
+
+    // Sum of the line quantities, so statistics do not have to unpack the payload
+    @Column(name = "book_count")
+    private Integer bookCount;
+
+    @Column(name = "partition_month")
+    private Integer partitionMonth;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private byte[] payload; // Gzipped JSON of the order and its line items
+}
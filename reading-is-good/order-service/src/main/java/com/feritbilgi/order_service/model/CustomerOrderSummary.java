@@ -0,0 +1,51 @@
+package com.feritbilgi.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read model row of a customer's order history: one row per order with its totals,
+ * so the history is read from one index without touching t_orders or line items.
+ */
+@Entity
+@Table(name = "t_customer_order_summary", indexes = {
+        @Index(name = "idx_order_summary_customer_created_at", columnList = "customer_id, created_at, order_id")
+})
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CustomerOrderSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "order_number", nullable = false, unique = true)
+    private String orderNumber;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    private BigDecimal totalAmount;
+
+    private Integer itemCount; // Sum of the line item quantities
+
+    private Integer lineCount;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -2,13 +2,23 @@ package com.feritbilgi.order_service.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "t_orders")
+@Table(name = "t_orders", indexes = {
+        // Keyset pagination walks these indexes from a cursor instead of counting an OFFSET
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        // total_amount, status and partition_month ride along so customer/status reports over a date range never touch the table
+        @Index(name = "idx_orders_customer_created_at_id", columnList = "customer_id, created_at, id, total_amount, status, partition_month"),
+        @Index(name = "idx_orders_status_created_at_id", columnList = "status, created_at, id, total_amount, partition_month"),
+        @Index(name = "uk_orders_order_number", columnList = "order_number", unique = true),
+        // Archival walks old months only
+        @Index(name = "idx_orders_partition_month_status_id", columnList = "partition_month, status, id")
+})
 @Data
 @Getter
 @Setter
@@ -16,16 +26,43 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 public class Order {
+    // Pooled sequence: one sequence call per 50 orders, and inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "t_orders_seq", allocationSize = 50)
     private Long id;
+    @Column(name = "order_number", nullable = false)
     private String orderNumber;
+    @Column(name = "customer_id")
     private Long customerId;
-    @OneToMany(cascade = CascadeType.ALL)
+    // Foreign key on t_order_line_items instead of a join table; lazy paths load items for 100 orders per query
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    @BatchSize(size = 100)
     private List<OrderLineItems> orderLineItemsList; // Each order contains some orderLineItems
+    @Column(name = "total_amount")
     private BigDecimal totalAmount;
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+    // Month of createdAt as yyyyMM; the range key a partitioned t_orders is split on
+    @Column(name = "partition_month", nullable = false)
+    private Integer partitionMonth;
+    // An edit saved from a stale read fails instead of overwriting a status change made in between
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public static int partitionMonthOf(LocalDateTime dateTime) {
+        return dateTime.getYear() * 100 + dateTime.getMonthValue();
+    }
+
+    @PrePersist
+    void assignPartitionMonth() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        partitionMonth = partitionMonthOf(createdAt);
+    }
 }
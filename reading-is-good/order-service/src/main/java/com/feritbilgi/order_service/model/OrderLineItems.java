@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "t_order_line_items")
+@Table(name = "t_order_line_items", indexes = {
+        // Book counts per order range are read from the index alone
+        @Index(name = "idx_order_line_items_order_id_quantity", columnList = "order_id, quantity")
+})
 @Data
 @Getter
 @Setter
@@ -15,8 +18,10 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 public class OrderLineItems {
+    // IDENTITY would need the generated key of every row and turns off JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_item_seq")
+    @SequenceGenerator(name = "order_line_item_seq", sequenceName = "t_order_line_items_seq", allocationSize = 50)
     private Long id;
     private String skuCode;
     private BigDecimal price;
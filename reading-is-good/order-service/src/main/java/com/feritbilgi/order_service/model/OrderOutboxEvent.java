@@ -0,0 +1,57 @@
+package com.feritbilgi.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "t_order_outbox", indexes = {
+        // Relay reads due PENDING rows in (created_at, id) order
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at, created_at, id"),
+        // Per order ordering check: is there an earlier PENDING event of the same order
+        @Index(name = "idx_outbox_order_number_status", columnList = "order_number, status, created_at, id")
+})
+@Data
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+    // Sequence ids let the events of an order go in one insert batch. A pooled sequence hands out a
+    // block per instance, so ids are only ordered within one instance; the relay orders by created_at first
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "t_order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_number", nullable = false)
+    private String orderNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventType eventType;
+
+    @Lob
+    private String payload; // JSON body sent as is, null when the order number is enough
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Write time of the event; together with the id it gives the send order of an order's events across instances
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -5,5 +5,16 @@ public enum OrderStatus {
     CONFIRMED,
     SHIPPED,
     DELIVERED,
-    CANCELLED
-} 
\ No newline at end of file
+    CANCELLED,
+    FAILED; // Its stock could not be committed, see OrderOutboxRelay
+
+    // PENDING -> CONFIRMED -> SHIPPED -> DELIVERED; an order can be cancelled or failed until it is shipped
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == CANCELLED || next == FAILED;
+            case CONFIRMED -> next == SHIPPED || next == CANCELLED || next == FAILED;
+            case SHIPPED -> next == DELIVERED;
+            case DELIVERED, CANCELLED, FAILED -> false;
+        };
+    }
+}
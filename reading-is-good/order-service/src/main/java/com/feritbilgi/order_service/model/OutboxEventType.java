@@ -0,0 +1,9 @@
+package com.feritbilgi.order_service.model;
+
+public enum OutboxEventType {
+    INVENTORY_COMMIT, // Turns the stock hold of the order into a sale
+    INVENTORY_RELEASE, // Gives the stock of a cancelled order back
+    ORDER_LOG,        // LogEvent for log-service
+    ORDER_SMS,        // SmsEvent for log-service
+    ORDER_SUMMARY     // Rebuild the order's row in the customer order history read model
+}
@@ -0,0 +1,7 @@
+package com.feritbilgi.order_service.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED // Gave up after the maximum number of attempts
+}
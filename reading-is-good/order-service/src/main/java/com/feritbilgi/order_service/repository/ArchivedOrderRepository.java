@@ -0,0 +1,22 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    Optional<ArchivedOrder> findByOrderNumber(String orderNumber);
+
+    // Date range is [from, to), served by idx_order_archive_customer_created_at
+    @Query("select count(a) as orderCount, coalesce(sum(a.bookCount), 0) as bookCount, " +
+            "coalesce(sum(a.totalAmount), 0) as totalAmount from ArchivedOrder a " +
+            "where a.customerId = :customerId and a.createdAt >= :from and a.createdAt < :to")
+    ArchivedOrderTotalsView sumByCustomerIdAndCreatedAtRange(@Param("customerId") Long customerId, @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to);
+}
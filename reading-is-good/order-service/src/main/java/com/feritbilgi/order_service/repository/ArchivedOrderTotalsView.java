@@ -0,0 +1,6 @@
+package com.feritbilgi.order_service.repository;
+
+// Projection for the statistics of archived orders; the book count is stored per archived order
+public interface ArchivedOrderTotalsView extends OrderTotalsView {
+    long getBookCount();
+}
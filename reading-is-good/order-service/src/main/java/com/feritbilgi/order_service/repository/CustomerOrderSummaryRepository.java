@@ -0,0 +1,28 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.CustomerOrderSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerOrderSummaryRepository extends JpaRepository<CustomerOrderSummary, Long> {
+
+    Optional<CustomerOrderSummary> findByOrderNumber(String orderNumber);
+
+    // Both served by idx_order_summary_customer_created_at, newest first
+    @Query("select s from CustomerOrderSummary s where s.customerId = :customerId order by s.createdAt desc, s.orderId desc")
+    List<CustomerOrderSummary> findFirstPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    @Query("select s from CustomerOrderSummary s where s.customerId = :customerId " +
+            "and (s.createdAt < :createdAt or (s.createdAt = :createdAt and s.orderId < :orderId)) " +
+            "order by s.createdAt desc, s.orderId desc")
+    List<CustomerOrderSummary> findPageByCustomerIdAfter(@Param("customerId") Long customerId, @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("orderId") Long orderId, Limit limit);
+}
@@ -0,0 +1,46 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.OrderOutboxEvent;
+import com.feritbilgi.order_service.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // Due events, skipping an event while an earlier one of the same order is still waiting for a retry or another relay.
+    // "Earlier" is (created_at, id): ids from a pooled sequence are not ordered across instances, write times are
+    @Query("select e.id from OrderOutboxEvent e where e.status = :status and e.nextAttemptAt <= :now " +
+            "and not exists (select p.id from OrderOutboxEvent p where p.orderNumber = e.orderNumber " +
+            "and p.status = :status and p.nextAttemptAt > :now " +
+            "and (p.createdAt < e.createdAt or (p.createdAt = e.createdAt and p.id < e.id))) " +
+            "order by e.createdAt, e.id")
+    List<Long> findDueIds(@Param("status") OutboxStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    // Re-read under lock, another relay instance may have claimed the rows since the id scan
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OrderOutboxEvent e where e.id in :ids and e.status = :status and e.nextAttemptAt <= :now order by e.createdAt, e.id")
+    List<OrderOutboxEvent> lockDue(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OrderOutboxEvent e set e.nextAttemptAt = :leaseUntil where e.id in :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("update OrderOutboxEvent e set e.status = :status, e.processedAt = :now where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("status") OutboxStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from OrderOutboxEvent e where e.status = :status and e.processedAt < :before")
+    int deleteProcessedBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
@@ -1,11 +1,162 @@
 package com.feritbilgi.order_service.repository;
 
 import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByCustomerId(Long customerId);
+
+    // Order and its line items in a single joined SELECT
+    @EntityGraph(attributePaths = "orderLineItemsList")
+    Optional<Order> findWithLineItemsById(Long id);
+
+    @EntityGraph(attributePaths = "orderLineItemsList")
+    Optional<Order> findWithLineItemsByOrderNumber(String orderNumber);
+
+    // Keyset pages, newest first. Line items come through @BatchSize, a fetch join would page in memory
+    @Query("select o from Order o order by o.createdAt desc, o.id desc")
+    List<Order> findFirstPage(Limit limit);
+
+    // Every row after the cursor is in the cursor's month or earlier, so later months are pruned
+    default List<Order> findPageAfter(LocalDateTime createdAt, Long id, Limit limit) {
+        return findPageAfterInMonths(createdAt, id, Order.partitionMonthOf(createdAt), limit);
+    }
+
+    @Query("select o from Order o where o.customerId = :customerId order by o.createdAt desc, o.id desc")
+    List<Order> findFirstPageByCustomerId(@Param("customerId") Long customerId, Limit limit);
+
+    default List<Order> findPageByCustomerIdAfter(Long customerId, LocalDateTime createdAt, Long id, Limit limit) {
+        return findPageByCustomerIdAfterInMonths(customerId, createdAt, id, Order.partitionMonthOf(createdAt), limit);
+    }
+
+    @Query("select o from Order o where o.partitionMonth <= :toMonth " +
+            "and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)) " +
+            "order by o.createdAt desc, o.id desc")
+    List<Order> findPageAfterInMonths(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                      @Param("toMonth") int toMonth, Limit limit);
+
+    @Query("select o from Order o where o.customerId = :customerId and o.partitionMonth <= :toMonth " +
+            "and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)) " +
+            "order by o.createdAt desc, o.id desc")
+    List<Order> findPageByCustomerIdAfterInMonths(@Param("customerId") Long customerId, @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id, @Param("toMonth") int toMonth, Limit limit);
+
+    Optional<Order> findByOrderNumber(String orderNumber);
+
+    // Date ranges are [from, to), newest first; served by idx_orders_customer_created_at_id / idx_orders_status_created_at_id.
+    // The partition_month bounds prune a month-partitioned t_orders to the months of the range
+    default List<Order> findByCustomerIdAndCreatedAtRange(Long customerId, LocalDateTime from, LocalDateTime to, Limit limit) {
+        return findByCustomerIdAndCreatedAtRangeInMonths(customerId, from, to,
+                Order.partitionMonthOf(from), Order.partitionMonthOf(to), limit);
+    }
+
+    default List<Order> findByStatusAndCreatedAtRange(OrderStatus status, LocalDateTime from, LocalDateTime to, Limit limit) {
+        return findByStatusAndCreatedAtRangeInMonths(status, from, to,
+                Order.partitionMonthOf(from), Order.partitionMonthOf(to), limit);
+    }
+
+    // Reporting aggregates, answered from the covering indexes without reading t_orders rows
+    default OrderTotalsView sumByCustomerIdAndCreatedAtRange(Long customerId, LocalDateTime from, LocalDateTime to) {
+        return sumByCustomerIdAndCreatedAtRangeInMonths(customerId, from, to, Order.partitionMonthOf(from), Order.partitionMonthOf(to));
+    }
+
+    default OrderTotalsView sumByStatusAndCreatedAtRange(OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        return sumByStatusAndCreatedAtRangeInMonths(status, from, to, Order.partitionMonthOf(from), Order.partitionMonthOf(to));
+    }
+
+    default long sumQuantityByCustomerIdAndCreatedAtRange(Long customerId, LocalDateTime from, LocalDateTime to) {
+        return sumQuantityByCustomerIdAndCreatedAtRangeInMonths(customerId, from, to, Order.partitionMonthOf(from), Order.partitionMonthOf(to));
+    }
+
+    @Query("select o from Order o where o.customerId = :customerId and o.createdAt >= :from and o.createdAt < :to " +
+            "and o.partitionMonth between :fromMonth and :toMonth " +
+            "order by o.createdAt desc, o.id desc")
+    List<Order> findByCustomerIdAndCreatedAtRangeInMonths(@Param("customerId") Long customerId, @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to, @Param("fromMonth") int fromMonth,
+                                                          @Param("toMonth") int toMonth, Limit limit);
+
+    @Query("select o from Order o where o.status = :status and o.createdAt >= :from and o.createdAt < :to " +
+            "and o.partitionMonth between :fromMonth and :toMonth " +
+            "order by o.createdAt desc, o.id desc")
+    List<Order> findByStatusAndCreatedAtRangeInMonths(@Param("status") OrderStatus status, @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to, @Param("fromMonth") int fromMonth,
+                                                      @Param("toMonth") int toMonth, Limit limit);
+
+    @Query("select count(o) as orderCount, coalesce(sum(o.totalAmount), 0) as totalAmount from Order o " +
+            "where o.customerId = :customerId and o.createdAt >= :from and o.createdAt < :to " +
+            "and o.partitionMonth between :fromMonth and :toMonth")
+    OrderTotalsView sumByCustomerIdAndCreatedAtRangeInMonths(@Param("customerId") Long customerId, @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to, @Param("fromMonth") int fromMonth,
+                                                             @Param("toMonth") int toMonth);
+
+    @Query("select count(o) as orderCount, coalesce(sum(o.totalAmount), 0) as totalAmount from Order o " +
+            "where o.status = :status and o.createdAt >= :from and o.createdAt < :to " +
+            "and o.partitionMonth between :fromMonth and :toMonth")
+    OrderTotalsView sumByStatusAndCreatedAtRangeInMonths(@Param("status") OrderStatus status, @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to, @Param("fromMonth") int fromMonth,
+                                                         @Param("toMonth") int toMonth);
+
+    @Query("select coalesce(sum(li.quantity), 0) from Order o join o.orderLineItemsList li " +
+            "where o.customerId = :customerId and o.createdAt >= :from and o.createdAt < :to " +
+            "and o.partitionMonth between :fromMonth and :toMonth")
+    long sumQuantityByCustomerIdAndCreatedAtRangeInMonths(@Param("customerId") Long customerId, @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to, @Param("fromMonth") int fromMonth,
+                                                          @Param("toMonth") int toMonth);
+
+    // Archival: closed orders of months before the cutoff, oldest month first
+    @Query("select o.id from Order o where o.partitionMonth < :beforeMonth and o.status in :statuses " +
+            "order by o.partitionMonth, o.id")
+    List<Long> findArchivableIds(@Param("beforeMonth") int beforeMonth, @Param("statuses") Collection<OrderStatus> statuses, Limit limit);
+
+    @EntityGraph(attributePaths = "orderLineItemsList")
+    List<Order> findWithLineItemsByIdIn(Collection<Long> ids);
+
+    // Line items first, t_order_line_items references t_orders
+    @Modifying
+    @Query(value = "delete from t_order_line_items where order_id in (:ids)", nativeQuery = true)
+    int deleteLineItemsByOrderIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Only the columns a status transition needs, no entity or line items are loaded
+    List<OrderStatusView> findByIdIn(Collection<Long> ids);
+
+    // Same columns, locked until the transition commits so no other caller moves the orders in between
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id as id, o.orderNumber as orderNumber, o.customerId as customerId, o.status as status, o.version as version " +
+            "from Order o where o.id in :ids")
+    List<OrderStatusView> findForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<OrderStatusView> findByOrderNumberIn(Collection<String> orderNumbers);
+
+    // Moves the orders that are still in one of the expected states in one statement, returns how many moved.
+    // The version bump makes an edit that was read before the move fail instead of overwriting it
+    @Modifying
+    @Query("update Order o set o.status = :status, o.version = o.version + 1 where o.id in :ids and o.status in :expected")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("expected") Collection<OrderStatus> expected,
+                         @Param("status") OrderStatus status);
+
+    // Export chunks, oldest first from (createdAt, id) up to the export's end time; customerId is optional
+    @Query("select o from Order o where (:customerId is null or o.customerId = :customerId) " +
+            "and (o.createdAt > :createdAt or (o.createdAt = :createdAt and o.id > :id)) " +
+            "and o.createdAt < :to " +
+            "order by o.createdAt asc, o.id asc")
+    List<Order> findExportChunk(@Param("customerId") Long customerId, @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id, @Param("to") LocalDateTime to, Limit limit);
 }
@@ -0,0 +1,12 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.OrderStatus;
+
+// Projection for status transitions
+public interface OrderStatusView {
+    Long getId();
+    String getOrderNumber();
+    Long getCustomerId();
+    OrderStatus getStatus();
+    Long getVersion();
+}
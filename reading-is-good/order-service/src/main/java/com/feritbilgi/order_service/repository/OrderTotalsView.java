@@ -0,0 +1,9 @@
+package com.feritbilgi.order_service.repository;
+
+import java.math.BigDecimal;
+
+// Projection for the reporting aggregates
+public interface OrderTotalsView {
+    long getOrderCount();
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,86 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.CustomerOrderSummaryPageResponse;
+import com.feritbilgi.order_service.model.CustomerOrderSummary;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.repository.CustomerOrderSummaryRepository;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Customer order history read model. Rows are written by the outbox relay after an order
+ * is placed or changed (ORDER_SUMMARY events), never on the request that changed the order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerOrderHistoryService {
+
+    private final CustomerOrderSummaryRepository summaryRepository;
+    private final OrderRepository orderRepository;
+
+    @Value("${order.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${order.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Rebuilds the summary row of the order from its current state, so replaying or
+     * reordering events gives the same row.
+     */
+    @Transactional
+    public void project(String orderNumber) {
+        Order order = orderRepository.findWithLineItemsByOrderNumber(orderNumber).orElse(null);
+        if (order == null) {
+            log.warn("Order {} not found for the history read model", orderNumber);
+            return;
+        }
+
+        CustomerOrderSummary summary = summaryRepository.findByOrderNumber(orderNumber)
+                .orElseGet(() -> CustomerOrderSummary.builder()
+                        .orderId(order.getId())
+                        .orderNumber(orderNumber)
+                        .build());
+        summary.setCustomerId(order.getCustomerId());
+        summary.setTotalAmount(order.getTotalAmount());
+        summary.setItemCount(order.getOrderLineItemsList().stream().mapToInt(OrderLineItems::getQuantity).sum());
+        summary.setLineCount(order.getOrderLineItemsList().size());
+        summary.setStatus(order.getStatus());
+        summary.setCreatedAt(order.getCreatedAt());
+        summary.setUpdatedAt(LocalDateTime.now());
+        summaryRepository.save(summary);
+    }
+
+    public CustomerOrderSummaryPageResponse getHistory(Long customerId, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        Limit pageLimit = Limit.of(pageSize + 1);
+
+        List<CustomerOrderSummary> rows;
+        if (cursor == null) {
+            rows = summaryRepository.findFirstPageByCustomerId(customerId, pageLimit);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+            rows = summaryRepository.findPageByCustomerIdAfter(customerId, orderCursor.createdAt(), orderCursor.id(), pageLimit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return CustomerOrderSummaryPageResponse.builder().orders(rows).build();
+        }
+        List<CustomerOrderSummary> page = rows.subList(0, pageSize);
+        CustomerOrderSummary last = page.get(pageSize - 1);
+        return CustomerOrderSummaryPageResponse.builder()
+                .orders(page)
+                .nextCursor(new OrderCursor(last.getCreatedAt(), last.getOrderId()).encode())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.feritbilgi.order_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Results of order submissions by Idempotency-Key, bounded in size and evicted after the TTL.
+ * The future is stored when the first submission starts, so concurrent duplicates wait on
+ * the same execution and later ones get the stored result. Failed submissions are removed,
+ * a retry with the same key runs again.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final Cache<String, CompletableFuture<String>> results;
+
+    public IdempotencyStore(@Value("${order.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${order.idempotency.max-size:100000}") long maxSize,
+                            MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "order.idempotency");
+    }
+
+    public CompletableFuture<String> execute(String key, Supplier<CompletableFuture<String>> submission) {
+        boolean[] started = new boolean[1];
+        CompletableFuture<String> result = results.get(key, k -> {
+            started[0] = true;
+            return submission.get();
+        });
+
+        if (started[0]) {
+            result.whenComplete((value, error) -> {
+                if (error != null) {
+                    results.asMap().remove(key, result);
+                }
+            });
+        } else {
+            log.info("Duplicate order submission with idempotency key {}", key);
+        }
+        // A copy, so a TimeLimiter cancelling the caller's future does not cancel the stored one
+        return result.copy();
+    }
+}
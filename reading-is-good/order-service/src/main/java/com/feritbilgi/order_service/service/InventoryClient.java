@@ -0,0 +1,86 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.StockReservationRequest;
+import com.feritbilgi.order_service.dto.TryReserveRequest;
+import com.feritbilgi.order_service.dto.TryReserveResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking calls to inventory-service. The blocking order flow calls block() on these,
+ * the reactive flow composes them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryClient {
+
+    private final WebClient inventoryWebClient;
+
+    public Mono<TryReserveResponse> tryReserve(String orderNumber, List<OrderLineItems> orderLineItems) {
+        List<StockReservationRequest> items = orderLineItems.stream()
+                .map(orderItem -> new StockReservationRequest(orderItem.getSkuCode(), orderItem.getQuantity()))
+                .toList();
+
+        return inventoryWebClient
+                .post()
+                .uri("/api/inventory/try-reserve")
+                .bodyValue(new TryReserveRequest(orderNumber, items))
+                .retrieve()
+                .bodyToMono(TryReserveResponse.class);
+    }
+
+    // One call for a whole bulk import chunk; responses come back in the order of the given orders
+    public Mono<TryReserveResponse[]> tryReserveAll(List<Order> orders) {
+        List<TryReserveRequest> requests = orders.stream()
+                .map(order -> new TryReserveRequest(order.getOrderNumber(), order.getOrderLineItemsList().stream()
+                        .map(orderItem -> new StockReservationRequest(orderItem.getSkuCode(), orderItem.getQuantity()))
+                        .toList()))
+                .toList();
+
+        return inventoryWebClient
+                .post()
+                .uri("/api/inventory/try-reserve/bulk")
+                .bodyValue(requests)
+                .retrieve()
+                .bodyToMono(TryReserveResponse[].class);
+    }
+
+    // Net change per SKU of an edited order; negative quantities give stock back
+    public Mono<TryReserveResponse> adjust(String orderNumber, Map<String, Integer> deltaBySku) {
+        List<StockReservationRequest> deltas = deltaBySku.entrySet().stream()
+                .map(entry -> new StockReservationRequest(entry.getKey(), entry.getValue()))
+                .toList();
+
+        return inventoryWebClient
+                .post()
+                .uri("/api/inventory/reservations/{orderNumber}/adjust", orderNumber)
+                .bodyValue(deltas)
+                .retrieve()
+                .bodyToMono(TryReserveResponse.class);
+    }
+
+    public Mono<String> commit(String orderNumber) {
+        return inventoryWebClient
+                .post()
+                .uri("/api/inventory/reservations/{orderNumber}/commit", orderNumber)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    public Mono<String> release(String orderNumber) {
+        return inventoryWebClient
+                .post()
+                .uri("/api/inventory/reservations/{orderNumber}/release", orderNumber)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
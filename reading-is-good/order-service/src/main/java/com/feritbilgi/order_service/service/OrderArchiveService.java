@@ -0,0 +1,139 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.ArchivedOrder;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.ArchivedOrderRepository;
+import com.feritbilgi.order_service.repository.ArchivedOrderTotalsView;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves closed (delivered or cancelled) orders older than after-months out of t_orders and
+ * t_order_line_items into t_order_archive, one month-ordered batch per transaction. Archived
+ * orders are gzipped JSON and can still be read by id or order number.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveService {
+
+    private static final Set<OrderStatus> CLOSED_STATUSES = Set.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.FAILED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderCache orderCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.archive.after-months:12}")
+    private int afterMonths;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}", initialDelayString = "${order.archive.interval-ms:3600000}")
+    public void archiveClosedOrders() {
+        if (!enabled) {
+            return;
+        }
+        int beforeMonth = Order.partitionMonthOf(LocalDateTime.now().minusMonths(afterMonths));
+        int totalArchived = 0;
+        int archivedInBatch;
+        do {
+            List<Order> archived = transactionTemplate.execute(status -> archiveBatch(beforeMonth));
+            archivedInBatch = archived == null ? 0 : archived.size();
+            if (archived != null) {
+                archived.forEach(order -> orderCache.evict(order.getId(), order.getCustomerId()));
+            }
+            totalArchived += archivedInBatch;
+        } while (archivedInBatch == batchSize);
+
+        if (totalArchived > 0) {
+            log.info("Archived {} closed orders created before month {}", totalArchived, beforeMonth);
+        }
+    }
+
+    public Optional<Order> findById(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(this::restore);
+    }
+
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        return archivedOrderRepository.findByOrderNumber(orderNumber).map(this::restore);
+    }
+
+    // Archived orders still count in the customer statistics
+    public ArchivedOrderTotalsView totalsByCustomerId(Long customerId, LocalDateTime from, LocalDateTime to) {
+        return archivedOrderRepository.sumByCustomerIdAndCreatedAtRange(customerId, from, to);
+    }
+
+    private List<Order> archiveBatch(int beforeMonth) {
+        List<Long> ids = orderRepository.findArchivableIds(beforeMonth, CLOSED_STATUSES, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Order> orders = orderRepository.findWithLineItemsByIdIn(ids);
+        LocalDateTime now = LocalDateTime.now();
+        archivedOrderRepository.saveAll(orders.stream()
+                .map(order -> ArchivedOrder.builder()
+                        .id(order.getId())
+                        .orderNumber(order.getOrderNumber())
+                        .customerId(order.getCustomerId())
+                        .status(order.getStatus())
+                        .totalAmount(order.getTotalAmount())
+                        .bookCount(order.getOrderLineItemsList().stream().mapToInt(OrderLineItems::getQuantity).sum())
+                        .partitionMonth(order.getPartitionMonth())
+                        .createdAt(order.getCreatedAt())
+                        .archivedAt(now)
+                        .payload(compress(order))
+                        .build())
+                .toList());
+        // Flush the archive rows before the bulk deletes, which bypass the persistence context
+        archivedOrderRepository.flush();
+        orderRepository.deleteLineItemsByOrderIds(ids);
+        orderRepository.deleteByIds(ids);
+        return orders;
+    }
+
+    private byte[] compress(Order order) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private Order restore(ArchivedOrder archivedOrder) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archivedOrder.getPayload()))) {
+            return objectMapper.readValue(gzip, Order.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
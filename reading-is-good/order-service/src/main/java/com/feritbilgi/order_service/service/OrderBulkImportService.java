@@ -0,0 +1,225 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.dto.BulkOrderResult;
+import com.feritbilgi.order_service.dto.OrderRequest;
+import com.feritbilgi.order_service.dto.TryReserveResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports orders sent as newline-delimited JSON (one OrderRequest per line) for schools and
+ * libraries. Orders are handled in chunks: one inventory call reserves the whole chunk, one
+ * transaction saves the reserved orders and their outbox events in JDBC batches, and the
+ * result of every order is written back as one NDJSON line before the next chunk is read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderBulkImportService {
+
+    private static final String CREATED = "CREATED";
+    private static final String REJECTED = "REJECTED";
+    private static final String FAILED = "FAILED";
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final InventoryClient inventoryClient;
+    private final OrderOutbox orderOutbox;
+    private final OrderCache orderCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public void importOrders(InputStream ndjson, Long defaultCustomerId, OutputStream report) throws IOException {
+        long line = 0;
+        long created = 0;
+        List<PendingOrder> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<OrderRequest> orderRequests = objectMapper.readerFor(OrderRequest.class).readValues(ndjson)) {
+            while (true) {
+                OrderRequest orderRequest;
+                try {
+                    if (!orderRequests.hasNextValue()) {
+                        break;
+                    }
+                    orderRequest = orderRequests.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The reader cannot find the next order after a broken line, so the import stops here
+                    created += importChunk(chunk, report);
+                    writeResults(List.of(BulkOrderResult.builder()
+                            .line(line + 1)
+                            .status(REJECTED)
+                            .message("Malformed order, import stopped: " + e.getOriginalMessage())
+                            .build()), report);
+                    log.warn("Bulk import stopped at line {}: {}", line + 1, e.getOriginalMessage());
+                    return;
+                }
+                line++;
+                if (orderRequest.getCustomerId() == null) {
+                    orderRequest.setCustomerId(defaultCustomerId);
+                }
+                chunk.add(new PendingOrder(line, orderRequest));
+                if (chunk.size() == chunkSize) {
+                    created += importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            created += importChunk(chunk, report);
+        } finally {
+            log.info("Bulk import finished, {} of {} orders created", created, line);
+        }
+    }
+
+    private long importChunk(List<PendingOrder> chunk, OutputStream report) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        BulkOrderResult[] results = new BulkOrderResult[chunk.size()];
+        List<Order> orders = new ArrayList<>(chunk.size());
+        List<Integer> orderIndexes = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            PendingOrder pending = chunk.get(i);
+            String validationError = OrderService.validate(pending.orderRequest());
+            if (validationError != null) {
+                results[i] = result(pending.line(), null, REJECTED, validationError, null);
+                continue;
+            }
+            orders.add(orderService.buildOrder(pending.orderRequest()));
+            orderIndexes.add(i);
+        }
+
+        List<Order> reservedOrders = new ArrayList<>(orders.size());
+        Map<String, String> errorByOrderNumber = new LinkedHashMap<>();
+        if (!orders.isEmpty()) {
+            TryReserveResponse[] reservations = reserve(orders);
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                long line = chunk.get(orderIndexes.get(i)).line();
+                TryReserveResponse reservation = reservations != null && i < reservations.length ? reservations[i] : null;
+                if (reservation != null && reservation.isReserved()) {
+                    reservedOrders.add(order);
+                    results[orderIndexes.get(i)] = result(line, order.getOrderNumber(), CREATED, null, null);
+                    continue;
+                }
+                String message = reservation == null ? "Inventory did not answer for this order" : "Items are not in stock";
+                errorByOrderNumber.put(order.getOrderNumber(), message);
+                results[orderIndexes.get(i)] = result(line, order.getOrderNumber(), REJECTED, message,
+                        reservation == null ? null : reservation.getShortSkuCodes());
+            }
+        }
+
+        if (!reservedOrders.isEmpty()) {
+            try {
+                saveAllWithOutbox(reservedOrders);
+            } catch (RuntimeException e) {
+                log.error("Bulk import chunk of {} orders could not be saved: {}", reservedOrders.size(), e.getMessage());
+                Set<String> failedOrderNumbers = new HashSet<>();
+                reservedOrders.forEach(order -> {
+                    failedOrderNumbers.add(order.getOrderNumber());
+                    errorByOrderNumber.put(order.getOrderNumber(), e.getMessage());
+                    releaseReservation(order.getOrderNumber());
+                });
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i].getOrderNumber() != null && failedOrderNumbers.contains(results[i].getOrderNumber())) {
+                        results[i] = result(results[i].getLine(), results[i].getOrderNumber(), FAILED, "Order could not be saved", null);
+                    }
+                }
+                reservedOrders.clear();
+            }
+        }
+
+        recordFailures(errorByOrderNumber);
+        writeResults(List.of(results), report);
+        return reservedOrders.size();
+    }
+
+    // A chunk the inventory cannot answer is rejected as a whole, the next chunk gets a fresh try
+    private TryReserveResponse[] reserve(List<Order> orders) {
+        try {
+            return inventoryClient.tryReserveAll(orders).block();
+        } catch (RuntimeException e) {
+            log.error("Bulk stock reservation of {} orders failed: {}", orders.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveAllWithOutbox(List<Order> orders) {
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.saveAll(orders);
+            orderOutbox.ordersPlaced(orders);
+        });
+        orders.stream()
+                .map(Order::getCustomerId)
+                .distinct()
+                .forEach(customerId -> orderCache.evict(null, customerId));
+    }
+
+    private void recordFailures(Map<String, String> errorByOrderNumber) {
+        if (errorByOrderNumber.isEmpty()) {
+            return;
+        }
+        try {
+            orderOutbox.ordersFailed(errorByOrderNumber);
+        } catch (Exception e) {
+            log.error("Failures of {} imported orders could not be queued for log-service: {}", errorByOrderNumber.size(), e.getMessage());
+        }
+    }
+
+    private void releaseReservation(String orderNumber) {
+        try {
+            inventoryClient.release(orderNumber).block();
+        } catch (Exception e) {
+            log.error("Reservation release failed for order {}: {}", orderNumber, e.getMessage());
+        }
+    }
+
+    private void writeResults(List<BulkOrderResult> results, OutputStream report) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(results.size() * 96);
+        try {
+            for (BulkOrderResult result : results) {
+                buffer.write(objectMapper.writeValueAsBytes(result));
+                buffer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        report.write(buffer.toByteArray());
+        report.flush();
+    }
+
+    private BulkOrderResult result(long line, String orderNumber, String status, String message, List<String> shortSkuCodes) {
+        return BulkOrderResult.builder()
+                .line(line)
+                .orderNumber(orderNumber)
+                .status(status)
+                .message(message)
+                .shortSkuCodes(shortSkuCodes)
+                .build();
+    }
+
+    private record PendingOrder(long line, OrderRequest orderRequest) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.OrderPageResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-process read cache for single orders and the first page of a customer's orders.
+ * Cached orders must have their line items loaded. placeOrder and updateOrder evict
+ * the entries they change, locally and through the optional OrderCacheTier.
+ */
+@Component
+@Slf4j
+public class OrderCache {
+
+    private final Cache<Long, Order> ordersById;
+    // customerId -> (page size -> first page)
+    private final Cache<Long, Map<Integer, OrderPageResponse>> customerFirstPages;
+    private final OrderCacheTier cacheTier;
+
+    public OrderCache(@Value("${order.cache.by-id.max-size:10000}") long byIdMaxSize,
+                      @Value("${order.cache.by-id.ttl:PT10M}") Duration byIdTtl,
+                      @Value("${order.cache.customer-pages.max-size:10000}") long customerPagesMaxSize,
+                      @Value("${order.cache.customer-pages.ttl:PT1M}") Duration customerPagesTtl,
+                      ObjectProvider<OrderCacheTier> cacheTier,
+                      MeterRegistry meterRegistry) {
+        this.ordersById = Caffeine.newBuilder()
+                .maximumSize(byIdMaxSize)
+                .expireAfterWrite(byIdTtl)
+                .recordStats()
+                .build();
+        this.customerFirstPages = Caffeine.newBuilder()
+                .maximumSize(customerPagesMaxSize)
+                .expireAfterWrite(customerPagesTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ordersById, "order.cache.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerFirstPages, "order.cache.customer-pages");
+
+        this.cacheTier = cacheTier.getIfAvailable(() -> OrderCacheTier.NONE);
+        this.cacheTier.onRemoteEviction(this::evictLocal);
+    }
+
+    public Order getOrder(Long orderId, Supplier<Order> loader) {
+        return ordersById.get(orderId, id -> cacheTier.getOrder(id).orElseGet(() -> {
+            Order order = loader.get();
+            cacheTier.putOrder(order);
+            return order;
+        }));
+    }
+
+    public OrderPageResponse getCustomerFirstPage(Long customerId, int pageSize, Supplier<OrderPageResponse> loader) {
+        return customerFirstPages.get(customerId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pageSize, size -> loader.get());
+    }
+
+    // orderId or customerId may be null
+    public void evict(Long orderId, Long customerId) {
+        evictLocal(orderId, customerId);
+        cacheTier.publishEviction(orderId, customerId);
+    }
+
+    private void evictLocal(Long orderId, Long customerId) {
+        if (orderId != null) {
+            ordersById.invalidate(orderId);
+        }
+        if (customerId != null) {
+            customerFirstPages.invalidate(customerId);
+        }
+    }
+}
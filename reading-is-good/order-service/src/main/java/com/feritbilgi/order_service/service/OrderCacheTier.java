@@ -0,0 +1,32 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.model.Order;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Optional shared tier below the in-process order cache (e.g. Redis), for running several
+ * order-service instances. Evictions are published through it and other instances drop
+ * their local copies through the listener. Without a bean of this type nothing is shared
+ * and the local TTL bounds how long another instance may serve a stale order.
+ */
+public interface OrderCacheTier {
+
+    OrderCacheTier NONE = new OrderCacheTier() {
+    };
+
+    default Optional<Order> getOrder(Long orderId) {
+        return Optional.empty();
+    }
+
+    default void putOrder(Order order) {
+    }
+
+    // orderId or customerId may be null
+    default void publishEviction(Long orderId, Long customerId) {
+    }
+
+    default void onRemoteEviction(BiConsumer<Long, Long> listener) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last order of a page in (createdAt desc, id desc) order.
+ * Clients only see it as an opaque base64 token.
+ */
+record OrderCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OrderCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new OrderCursor(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
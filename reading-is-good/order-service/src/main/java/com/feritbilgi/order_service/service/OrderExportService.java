@@ -0,0 +1,90 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes orders as newline-delimited JSON, one keyset chunk at a time. Each chunk is read
+ * and serialized in its own short read-only transaction and then dropped, so memory stays
+ * at one chunk and no connection is held while a slow client drains the output.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    private static final LocalDateTime EXPORT_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.export.chunk-size:500}")
+    private int chunkSize;
+
+    public void exportOrders(Long customerId, LocalDateTime from, LocalDateTime to, OutputStream outputStream) throws IOException {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        // Orders created after the export started are left out, so the end of the export is well defined
+        LocalDateTime exportEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime lastCreatedAt = from != null ? from : EXPORT_START;
+        long lastId = 0L; // (from, 0) makes the first chunk start at createdAt >= from
+        long exported = 0;
+
+        while (true) {
+            LocalDateTime chunkCreatedAt = lastCreatedAt;
+            long chunkId = lastId;
+            ExportChunk chunk = readOnlyTransaction.execute(status -> {
+                List<Order> orders = orderRepository.findExportChunk(customerId, chunkCreatedAt, chunkId, exportEnd, Limit.of(chunkSize));
+                return orders.isEmpty() ? null : new ExportChunk(toNdjson(orders), orders.get(orders.size() - 1), orders.size());
+            });
+            if (chunk == null) {
+                break;
+            }
+
+            // Blocks while the client is slow, which is the backpressure of the export
+            outputStream.write(chunk.ndjson());
+            outputStream.flush();
+
+            exported += chunk.size();
+            lastCreatedAt = chunk.last().getCreatedAt();
+            lastId = chunk.last().getId();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        log.info("Exported {} orders (customer: {}, from: {}, to: {})", exported, customerId, from, exportEnd);
+    }
+
+    private byte[] toNdjson(List<Order> orders) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(orders.size() * 256);
+        try {
+            for (Order order : orders) {
+                buffer.write(objectMapper.writeValueAsBytes(order));
+                buffer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private record ExportChunk(byte[] ndjson, Order last, int size) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.OrderLineItemsDto;
+import com.feritbilgi.order_service.model.OrderLineItems;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies the requested lines of an order update to the managed line item collection in
+ * place. Lines are matched by id, lines without an id by skuCode; matched lines are only
+ * changed where a field differs, unmatched existing lines are removed and the rest added.
+ * Hibernate then writes just those rows instead of deleting and re-inserting the order.
+ */
+final class OrderLineItemsDiff {
+
+    private OrderLineItemsDiff() {
+    }
+
+    // Returns the net quantity change per SKU (positive = more stock needed); SKUs without change are left out
+    static Map<String, Integer> apply(List<OrderLineItems> lines, List<OrderLineItemsDto> requested) {
+        Map<String, Integer> deltaBySku = new LinkedHashMap<>();
+        Map<Long, OrderLineItems> linesById = new HashMap<>();
+        lines.forEach(line -> linesById.put(line.getId(), line));
+        Set<OrderLineItems> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        OrderLineItems[] matches = new OrderLineItems[requested.size()];
+        for (int i = 0; i < requested.size(); i++) {
+            OrderLineItems line = linesById.get(parseId(requested.get(i).getId()));
+            if (line != null && kept.add(line)) {
+                matches[i] = line;
+            }
+        }
+
+        // Clients that send the whole basket again without ids still keep their rows
+        Map<String, Deque<OrderLineItems>> unmatchedBySku = new HashMap<>();
+        for (OrderLineItems line : lines) {
+            if (!kept.contains(line)) {
+                unmatchedBySku.computeIfAbsent(line.getSkuCode(), skuCode -> new ArrayDeque<>()).add(line);
+            }
+        }
+        for (int i = 0; i < requested.size(); i++) {
+            if (matches[i] == null) {
+                Deque<OrderLineItems> candidates = unmatchedBySku.get(requested.get(i).getSkuCode());
+                if (candidates != null && !candidates.isEmpty()) {
+                    matches[i] = candidates.poll();
+                    kept.add(matches[i]);
+                }
+            }
+        }
+
+        List<OrderLineItems> added = new ArrayList<>();
+        for (int i = 0; i < requested.size(); i++) {
+            OrderLineItemsDto dto = requested.get(i);
+            OrderLineItems line = matches[i];
+            if (line == null) {
+                line = new OrderLineItems();
+                line.setSkuCode(dto.getSkuCode());
+                line.setPrice(dto.getPrice());
+                line.setQuantity(dto.getQuantity());
+                added.add(line);
+                deltaBySku.merge(dto.getSkuCode(), dto.getQuantity(), Integer::sum);
+                continue;
+            }
+            deltaBySku.merge(line.getSkuCode(), -line.getQuantity(), Integer::sum);
+            deltaBySku.merge(dto.getSkuCode(), dto.getQuantity(), Integer::sum);
+            if (!Objects.equals(line.getSkuCode(), dto.getSkuCode())) {
+                line.setSkuCode(dto.getSkuCode());
+            }
+            if (!Objects.equals(line.getQuantity(), dto.getQuantity())) {
+                line.setQuantity(dto.getQuantity());
+            }
+            if (line.getPrice() == null || dto.getPrice() == null || line.getPrice().compareTo(dto.getPrice()) != 0) {
+                line.setPrice(dto.getPrice());
+            }
+        }
+
+        // Removed lines are orphans of the collection and get deleted on flush
+        lines.removeIf(line -> {
+            if (kept.contains(line)) {
+                return false;
+            }
+            deltaBySku.merge(line.getSkuCode(), -line.getQuantity(), Integer::sum);
+            return true;
+        });
+        lines.addAll(added);
+
+        deltaBySku.values().removeIf(delta -> delta == 0);
+        return deltaBySku;
+    }
+
+    private static Long parseId(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
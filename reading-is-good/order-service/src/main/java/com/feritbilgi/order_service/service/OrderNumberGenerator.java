@@ -0,0 +1,9 @@
+package com.feritbilgi.order_service.service;
+
+/**
+ * Source of order numbers. Selected with order.number.generator (see OrderNumberConfig).
+ */
+public interface OrderNumberGenerator {
+
+    String next();
+}
@@ -0,0 +1,170 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderOutboxEvent;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.model.OutboxEventType;
+import com.feritbilgi.order_service.model.OutboxStatus;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import com.feritbilgi.shared.dto.LogEvent;
+import com.feritbilgi.shared.dto.SmsEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the side effects of an order as rows of t_order_outbox. OrderOutboxRelay sends
+ * them to inventory-service and log-service after the transaction has committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderOutbox {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    // Must join the transaction that saves the order, otherwise the events could outlive a rolled back order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        outboxRepository.saveAll(placedEvents(order, LocalDateTime.now()));
+    }
+
+    // Bulk import: the events of all orders go into the same insert batches as the orders
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ordersPlaced(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> events = new ArrayList<>(orders.size() * 4);
+        orders.forEach(order -> events.addAll(placedEvents(order, now)));
+        outboxRepository.saveAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderChanged(Order order) {
+        outboxRepository.save(event(order.getOrderNumber(), OutboxEventType.ORDER_SUMMARY, null, LocalDateTime.now()));
+    }
+
+    // Status transitions: the read model follows every change, cancelled orders give their stock back
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(List<String> orderNumbers, OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> events = new ArrayList<>(orderNumbers.size() * 2);
+        for (String orderNumber : orderNumbers) {
+            if (status == OrderStatus.CANCELLED) {
+                events.add(event(orderNumber, OutboxEventType.INVENTORY_RELEASE, null, now));
+            }
+            events.add(event(orderNumber, OutboxEventType.ORDER_SUMMARY, null, now));
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    // The order was not saved, so the error log gets its own transaction
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void orderFailed(String orderNumber, Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        LogEvent logEvent = LogEvent.builder()
+                .operation("ORDER_CREATED")
+                .description("Yeni sipariş oluşturuldu")
+                .serviceName("OrderService")
+                .methodName("placeOrder")
+                .requestData(orderNumber)
+                .errorMessage(error.getMessage())
+                .status("ERROR")
+                .timestamp(now)
+                .build();
+        outboxRepository.save(event(orderNumber, OutboxEventType.ORDER_LOG, toJson(logEvent), now));
+    }
+
+    // Bulk import rejections, one transaction for the whole chunk
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void ordersFailed(Map<String, String> errorByOrderNumber) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> events = new ArrayList<>(errorByOrderNumber.size());
+        errorByOrderNumber.forEach((orderNumber, errorMessage) -> events.add(event(orderNumber, OutboxEventType.ORDER_LOG,
+                toJson(LogEvent.builder()
+                        .operation("ORDER_CREATED")
+                        .description("Toplu sipariş aktarımı")
+                        .serviceName("OrderService")
+                        .methodName("importOrders")
+                        .requestData(orderNumber)
+                        .errorMessage(errorMessage)
+                        .status("ERROR")
+                        .timestamp(now)
+                        .build()), now)));
+        outboxRepository.saveAll(events);
+    }
+
+    // The relay gave up committing the stock of these orders; log-service gets the reason
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void stockCommitFailed(Map<String, String> errorByOrderNumber) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> events = new ArrayList<>(errorByOrderNumber.size());
+        errorByOrderNumber.forEach((orderNumber, errorMessage) -> events.add(event(orderNumber, OutboxEventType.ORDER_LOG,
+                toJson(LogEvent.builder()
+                        .operation("INVENTORY_COMMIT")
+                        .description("Sipariş stoğu onaylanamadı")
+                        .serviceName("OrderService")
+                        .methodName("relay")
+                        .requestData(orderNumber)
+                        .errorMessage(errorMessage)
+                        .status("ERROR")
+                        .timestamp(now)
+                        .build()), now)));
+        outboxRepository.saveAll(events);
+    }
+
+    private List<OrderOutboxEvent> placedEvents(Order order, LocalDateTime now) {
+        LogEvent logEvent = LogEvent.builder()
+                .operation("ORDER_CREATED")
+                .description("Yeni sipariş oluşturuldu")
+                .serviceName("OrderService")
+                .methodName("placeOrder")
+                .responseData(order.getOrderNumber())
+                .status("SUCCESS")
+                .timestamp(now)
+                .build();
+        SmsEvent smsEvent = SmsEvent.builder()
+                .phoneNumber("+905551234567") // Demo için sabit numara
+                .message("İşlem tamamlandı: Yeni sipariş oluşturuldu")
+                .template("ORDER_CONFIRMATION")
+                .serviceName("OrderService")
+                .operation("ORDER_CREATED")
+                .timestamp(now)
+                .status("SENT")
+                .build();
+
+        return List.of(
+                event(order.getOrderNumber(), OutboxEventType.INVENTORY_COMMIT, null, now),
+                event(order.getOrderNumber(), OutboxEventType.ORDER_LOG, toJson(logEvent), now),
+                event(order.getOrderNumber(), OutboxEventType.ORDER_SMS, toJson(smsEvent), now),
+                event(order.getOrderNumber(), OutboxEventType.ORDER_SUMMARY, null, now));
+    }
+
+    private OrderOutboxEvent event(String orderNumber, OutboxEventType eventType, String payload, LocalDateTime now) {
+        return OrderOutboxEvent.builder()
+                .orderNumber(orderNumber)
+                .eventType(eventType)
+                .payload(payload)
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Outbox payload could not be serialized", e);
+        }
+    }
+}
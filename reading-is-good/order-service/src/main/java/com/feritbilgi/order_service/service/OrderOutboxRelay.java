@@ -0,0 +1,221 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.model.OrderOutboxEvent;
+import com.feritbilgi.order_service.model.OutboxEventType;
+import com.feritbilgi.order_service.model.OutboxStatus;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Drains t_order_outbox in batches: HTTP calls to inventory-service and log-service and the
+ * customer history read model. Events of one order are sent one after the other in write
+ * order (created_at, id) and the rest of the order waits when one fails; different orders
+ * are sent in parallel. Delivery is at least once, the receivers treat a repeated event as done.
+ * When an order's INVENTORY_COMMIT is given up on, the order is moved to FAILED.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryClient inventoryClient;
+    private final WebClient logServiceWebClient;
+    private final CustomerOrderHistoryService customerOrderHistoryService;
+    private final Scheduler orderPersistenceScheduler;
+    private final OrderStatusService orderStatusService;
+
+    @Value("${order.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${order.outbox.concurrency:16}")
+    private int concurrency;
+
+    @Value("${order.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${order.outbox.lease:PT30S}")
+    private Duration lease;
+
+    @Value("${order.outbox.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${order.outbox.max-retry-backoff:PT5M}")
+    private Duration maxRetryBackoff;
+
+    @Value("${order.outbox.retention:PT24H}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:500}")
+    public void relay() {
+        List<OrderOutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                relayBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.cleanup-interval-ms:3600000}")
+    public void deleteSentEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteProcessedBefore(OutboxStatus.SENT, LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} sent outbox events", deleted);
+        }
+    }
+
+    // Leasing pushes next_attempt_at forward, so other relay instances leave the claimed rows alone
+    private List<OrderOutboxEvent> claimBatch() {
+        List<OrderOutboxEvent> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> dueIds = outboxRepository.findDueIds(OutboxStatus.PENDING, now, Limit.of(batchSize));
+            if (dueIds.isEmpty()) {
+                return List.of();
+            }
+            List<OrderOutboxEvent> locked = outboxRepository.lockDue(dueIds, OutboxStatus.PENDING, now);
+            if (!locked.isEmpty()) {
+                outboxRepository.lease(locked.stream().map(OrderOutboxEvent::getId).toList(), now.plus(lease));
+            }
+            return locked;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void relayBatch(List<OrderOutboxEvent> batch) {
+        Map<String, List<OrderOutboxEvent>> eventsByOrder = batch.stream()
+                .collect(Collectors.groupingBy(OrderOutboxEvent::getOrderNumber, LinkedHashMap::new, Collectors.toList()));
+
+        List<RelayResult> results = Flux.fromIterable(eventsByOrder.values())
+                .flatMap(this::relayInOrder, concurrency)
+                .collectList()
+                .block();
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        List<OrderOutboxEvent> failed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (RelayResult result : results) {
+            if (result.error() == null) {
+                sentIds.add(result.event().getId());
+            } else {
+                failed.add(scheduleRetry(result.event(), result.error(), now));
+            }
+        }
+        // Events behind a failed one were never tried; drop their lease, the failed event still blocks them
+        Set<Long> attemptedIds = results.stream().map(result -> result.event().getId()).collect(Collectors.toSet());
+        List<Long> skippedIds = batch.stream()
+                .map(OrderOutboxEvent::getId)
+                .filter(id -> !attemptedIds.contains(id))
+                .toList();
+
+        // An order whose stock commit was given up on must not stay placed without stock
+        Map<String, String> commitErrorByOrderNumber = new LinkedHashMap<>();
+        failed.stream()
+                .filter(event -> event.getStatus() == OutboxStatus.FAILED && event.getEventType() == OutboxEventType.INVENTORY_COMMIT)
+                .forEach(event -> commitErrorByOrderNumber.put(event.getOrderNumber(), event.getLastError()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markProcessed(sentIds, OutboxStatus.SENT, now);
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.saveAll(failed);
+            }
+            if (!commitErrorByOrderNumber.isEmpty()) {
+                orderStatusService.failOrders(commitErrorByOrderNumber);
+            }
+            if (!skippedIds.isEmpty()) {
+                outboxRepository.lease(skippedIds, now);
+            }
+        });
+        if (!failed.isEmpty()) {
+            log.warn("{} of {} outbox events could not be sent and will be retried", failed.size(), results.size());
+        }
+    }
+
+    // Stops at the first failure; the later events of the order keep their lease and are picked up after the retry
+    private Flux<RelayResult> relayInOrder(List<OrderOutboxEvent> events) {
+        return Flux.fromIterable(events)
+                .concatMap(event -> send(event)
+                        .thenReturn(new RelayResult(event, null))
+                        .onErrorResume(error -> Mono.just(new RelayResult(event, error))))
+                .takeUntil(result -> result.error() != null);
+    }
+
+    private Mono<Void> send(OrderOutboxEvent event) {
+        return switch (event.getEventType()) {
+            case INVENTORY_COMMIT -> inventoryClient.commit(event.getOrderNumber()).then();
+            case INVENTORY_RELEASE -> inventoryClient.release(event.getOrderNumber()).then();
+            case ORDER_LOG -> post("/api/logs", event.getPayload());
+            case ORDER_SMS -> post("/api/sms", event.getPayload());
+            // Local JPA work, kept off the Netty threads
+            case ORDER_SUMMARY -> Mono.fromRunnable(() -> customerOrderHistoryService.project(event.getOrderNumber()))
+                    .subscribeOn(orderPersistenceScheduler)
+                    .then();
+        };
+    }
+
+    private Mono<Void> post(String uri, String payload) {
+        return logServiceWebClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(payload)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    private OrderOutboxEvent scheduleRetry(OrderOutboxEvent event, Throwable error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(error.getMessage()));
+        // 409: the receiver refuses the event for good (e.g. the stock hold expired and is gone), retrying cannot help
+        if (attempts >= maxAttempts || error instanceof WebClientResponseException.Conflict) {
+            event.setStatus(OutboxStatus.FAILED);
+            event.setProcessedAt(now);
+            log.error("Giving up outbox event {} ({}) of order {} after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getOrderNumber(), attempts, error.getMessage());
+        } else {
+            // Exponential backoff: retryBackoff, 2x, 4x ... capped at maxRetryBackoff
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+            event.setNextAttemptAt(now.plus(backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff));
+        }
+        return event;
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private record RelayResult(OrderOutboxEvent event, Throwable error) {
+    }
+}
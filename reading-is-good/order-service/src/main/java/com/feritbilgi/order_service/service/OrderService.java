@@ -1,116 +1,317 @@
 package com.feritbilgi.order_service.service;
 
 import com.feritbilgi.order_service.dto.OrderLineItemsDto;
+import com.feritbilgi.order_service.dto.OrderPageResponse;
 import com.feritbilgi.order_service.dto.OrderRequest;
-import com.feritbilgi.order_service.dto.InventoryResponse;
+import com.feritbilgi.order_service.dto.OrderStatisticsResponse;
+import com.feritbilgi.order_service.dto.TryReserveResponse;
 import com.feritbilgi.order_service.model.Order;
 import com.feritbilgi.order_service.model.OrderLineItems;
 import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.ArchivedOrderTotalsView;
 import com.feritbilgi.order_service.repository.OrderRepository;
+import com.feritbilgi.order_service.repository.OrderTotalsView;
 import com.feritbilgi.shared.annotation.LogOperation;
+import com.feritbilgi.shared.money.Money;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    private static final LocalDateTime STATISTICS_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final OrderRepository orderRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final InventoryClient inventoryClient;
+    private final Scheduler orderPersistenceScheduler;
     private final Tracer tracer;
+    private final OrderOutbox orderOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderCache orderCache;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderArchiveService orderArchiveService;
 
-    @LogOperation(operation = "ORDER_CREATED", description = "Yeni sipariş oluşturuldu", sendSms = true, smsTemplate = "ORDER_CONFIRMATION")
-    public String placeOrder(OrderRequest orderRequest) {
-        Order order = new Order();
-        order.setOrderNumber(UUID.randomUUID().toString());
-        order.setCustomerId(orderRequest.getCustomerId()); // Customer ID'yi set et
-        
-        List<OrderLineItems> orderLineItems = orderRequest.getOrderLineItemsDtoList()
-                .stream()
-                .map(this::mapToDto)
-                .toList();
-        
-        order.setOrderLineItemsList(orderLineItems);
+    @Value("${order.page.default-size:50}")
+    private int defaultPageSize;
 
-        // Check inventory availability
-        checkInventoryAvailability(orderLineItems);
+    @Value("${order.page.max-size:500}")
+    private int maxPageSize;
 
-        // Calculate total amount
-        BigDecimal totalAmount = orderLineItems.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        order.setTotalAmount(totalAmount);
-        order.setStatus(OrderStatus.PENDING);
-        order.setCreatedAt(LocalDateTime.now());
-        
-        orderRepository.save(order);
+    /**
+     * The stock check stays a synchronous call, an order is only accepted with its stock on hold.
+     * Everything after it is one local transaction: the order plus its outbox events (stock
+     * commit, log, SMS), which OrderOutboxRelay sends in the background.
+     */
+    public String placeOrder(OrderRequest orderRequest) {
+        requireValid(orderRequest);
+        Order order = buildOrder(orderRequest);
+
+        try {
+            // Check and reduce stock in one call, so nothing is saved when an item is not in stock
+            reserveInventory(order.getOrderNumber(), order.getOrderLineItemsList());
+        } catch (RuntimeException e) {
+            recordFailure(order.getOrderNumber(), e);
+            throw e;
+        }
         
-        // Update inventory - reduce stock after order is saved
-        updateInventoryStock(orderLineItems);
+        try {
+            saveWithOutbox(order);
+        } catch (RuntimeException e) {
+            // Do not keep the stock on hold until it expires, the order does not exist
+            releaseReservation(order.getOrderNumber());
+            recordFailure(order.getOrderNumber(), e);
+            throw e;
+        }
         
-        log.info("Order {} is saved and inventory updated", order.getOrderNumber());
+        log.info("Order {} is saved, inventory commit queued", order.getOrderNumber());
         return "Order placed successfully";
     }
 
+    /**
+     * Same flow as placeOrder without holding a thread per order: the inventory calls are
+     * non-blocking and only the local transaction runs on the bounded persistence scheduler.
+     */
+    public Mono<String> placeOrderReactive(OrderRequest orderRequest) {
+        String validationError = validate(orderRequest);
+        if (validationError != null) {
+            return Mono.error(new IllegalArgumentException(validationError));
+        }
+        Order order = buildOrder(orderRequest);
+        String orderNumber = order.getOrderNumber();
+
+        return inventoryClient.tryReserve(orderNumber, order.getOrderLineItemsList())
+                .flatMap(tryReserveResponse -> tryReserveResponse.isReserved()
+                        ? Mono.just(tryReserveResponse)
+                        : Mono.error(new RuntimeException("Items with SKU " + tryReserveResponse.getShortSkuCodes() + " are not in stock")))
+                // An empty body is no reservation, like the null response on the blocking path
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Items with SKU " + List.of() + " are not in stock")))
+                .then(Mono.fromCallable(() -> saveWithOutbox(order))
+                        .subscribeOn(orderPersistenceScheduler)
+                        .onErrorResume(error -> inventoryClient.release(orderNumber)
+                                .onErrorResume(releaseError -> {
+                                    log.error("Reservation release failed for order {}: {}", orderNumber, releaseError.getMessage());
+                                    return Mono.empty();
+                                })
+                                .then(Mono.error(error))))
+                .onErrorResume(error -> Mono.fromRunnable(() -> recordFailure(orderNumber, error))
+                        .subscribeOn(orderPersistenceScheduler)
+                        .then(Mono.error(error)))
+                .doOnSuccess(savedOrder -> log.info("Order {} is saved, inventory commit queued", orderNumber))
+                .thenReturn("Order placed successfully");
+    }
+
     @LogOperation(operation = "ORDERS_RETRIEVED", description = "Tüm siparişler getirildi")
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public OrderPageResponse getOrders(String cursor, Integer limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepository.findFirstPage(pageLimit);
+        } else {
+            OrderCursor orderCursor = OrderCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(orderCursor.createdAt(), orderCursor.id(), pageLimit);
+        }
+        return toPage(orders, pageLimit);
     }
 
     @LogOperation(operation = "CUSTOMER_ORDERS_RETRIEVED", description = "Müşteri siparişleri getirildi")
-    public List<Order> getOrdersByCustomerId(Long customerId) {
+    public OrderPageResponse getOrdersByCustomerId(Long customerId, String cursor, Integer limit) {
         log.info("Getting orders for customer: {}", customerId);
-        return orderRepository.findByCustomerId(customerId);
+        Limit pageLimit = pageLimit(limit);
+        if (cursor == null) {
+            // The first page is what customers look at, it is served from the cache
+            return orderCache.getCustomerFirstPage(customerId, pageLimit.max(), () -> transactionTemplate.execute(status -> {
+                List<Order> orders = orderRepository.findFirstPageByCustomerId(customerId, pageLimit);
+                orders.forEach(order -> Hibernate.initialize(order.getOrderLineItemsList()));
+                return toPage(orders, pageLimit);
+            }));
+        }
+        OrderCursor orderCursor = OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.findPageByCustomerIdAfter(customerId, orderCursor.createdAt(), orderCursor.id(), pageLimit);
+        return toPage(orders, pageLimit);
     }
 
+    /**
+     * Applies only the difference to the stored order: changed lines are updated, removed ones
+     * deleted and new ones inserted, and inventory gets just the net quantity change per SKU.
+     */
     @LogOperation(operation = "ORDER_UPDATED", description = "Sipariş güncellendi")
     public String updateOrder(Long orderId, OrderRequest orderRequest) {
         log.info("Updating order with id: {}", orderId);
+        requireValid(orderRequest);
         
-        Order existingOrder = orderRepository.findById(orderId)
+        Order existingOrder = orderRepository.findWithLineItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        if (existingOrder.getStatus() != OrderStatus.PENDING && existingOrder.getStatus() != OrderStatus.CONFIRMED) {
+            throw new RuntimeException("Order " + existingOrder.getOrderNumber() + " is already " + existingOrder.getStatus() + " and cannot be changed");
+        }
+        Long previousCustomerId = existingOrder.getCustomerId();
         
         // Update order details
         existingOrder.setCustomerId(orderRequest.getCustomerId());
         
-        List<OrderLineItems> orderLineItems = orderRequest.getOrderLineItemsDtoList()
-                .stream()
-                .map(this::mapToDto)
-                .toList();
+        Map<String, Integer> deltaBySku = OrderLineItemsDiff.apply(existingOrder.getOrderLineItemsList(),
+                orderRequest.getOrderLineItemsDtoList());
         
-        existingOrder.setOrderLineItemsList(orderLineItems);
-        
-        // Check inventory availability for updated items
-        checkInventoryAvailability(orderLineItems);
+        // Only the SKUs whose quantity changed are reserved or given back
+        adjustReservation(existingOrder.getOrderNumber(), deltaBySku);
         
         // Recalculate total amount
-        BigDecimal totalAmount = orderLineItems.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        existingOrder.setTotalAmount(totalAmount);
+        existingOrder.setTotalAmount(totalAmount(existingOrder.getOrderLineItemsList()));
         
-        orderRepository.save(existingOrder);
-        log.info("Order {} is updated", existingOrder.getOrderNumber());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Order savedOrder = orderRepository.save(existingOrder);
+                orderOutbox.orderChanged(savedOrder);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // A status change (e.g. a cancel) committed after our read; the edit must not overwrite it
+            revertReservation(existingOrder.getOrderNumber(), deltaBySku);
+            throw new RuntimeException("Order " + existingOrder.getOrderNumber() + " was changed concurrently, please retry", e);
+        } catch (RuntimeException e) {
+            // The order keeps its old lines, so the reservation has to go back to them
+            revertReservation(existingOrder.getOrderNumber(), deltaBySku);
+            throw e;
+        }
+        orderCache.evict(orderId, previousCustomerId);
+        if (!Objects.equals(previousCustomerId, existingOrder.getCustomerId())) {
+            orderCache.evict(null, existingOrder.getCustomerId());
+        }
+        log.info("Order {} is updated, {} skuCodes changed", existingOrder.getOrderNumber(), deltaBySku.size());
         return "Order updated successfully";
     }
 
+    /**
+     * Order count, book count and amount of a customer in [from, to), live and archived orders
+     * together. All queries are range reads on covering indexes; without a range the
+     * customer's whole history is counted.
+     */
+    public OrderStatisticsResponse getStatistics(Long customerId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime rangeFrom = from != null ? from : STATISTICS_START;
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now();
+        OrderTotalsView totals = orderRepository.sumByCustomerIdAndCreatedAtRange(customerId, rangeFrom, rangeTo);
+        long bookCount = orderRepository.sumQuantityByCustomerIdAndCreatedAtRange(customerId, rangeFrom, rangeTo);
+        ArchivedOrderTotalsView archived = orderArchiveService.totalsByCustomerId(customerId, rangeFrom, rangeTo);
+        return OrderStatisticsResponse.builder()
+                .customerId(customerId)
+                .from(rangeFrom)
+                .to(rangeTo)
+                .orderCount(totals.getOrderCount() + archived.getOrderCount())
+                .bookCount(bookCount + archived.getBookCount())
+                .totalAmount(totals.getTotalAmount().add(archived.getTotalAmount()))
+                .build();
+    }
+
     public Order getOrderById(Long orderId) {
         log.info("Getting order by id: {}", orderId);
-        return orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        return orderCache.getOrder(orderId, () -> orderRepository.findWithLineItemsById(orderId)
+                .or(() -> orderArchiveService.findById(orderId))
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId)));
+    }
+
+    // Closed orders older than order.archive.after-months are only found in the archive
+    public Order getOrderByNumber(String orderNumber) {
+        log.info("Getting order by number: {}", orderNumber);
+        return orderRepository.findWithLineItemsByOrderNumber(orderNumber)
+                .or(() -> orderArchiveService.findByOrderNumber(orderNumber))
+                .orElseThrow(() -> new RuntimeException("Order not found with number: " + orderNumber));
+    }
+
+    // One row more than the page size tells whether there is a next page without a COUNT query
+    private Limit pageLimit(Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return Limit.of(pageSize + 1);
+    }
+
+    private OrderPageResponse toPage(List<Order> orders, Limit pageLimit) {
+        int pageSize = pageLimit.max() - 1;
+        if (orders.size() <= pageSize) {
+            return OrderPageResponse.builder().orders(orders).build();
+        }
+        List<Order> page = orders.subList(0, pageSize);
+        return OrderPageResponse.builder()
+                .orders(page)
+                .nextCursor(OrderCursor.of(page.get(pageSize - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Returns why the order cannot be placed, or null. Checked before inventory is called:
+     * a zero or negative line would cancel another line of the same SKU in the reservation.
+     * Package-private so the bulk import rejects the same orders per line.
+     */
+    static String validate(OrderRequest orderRequest) {
+        List<OrderLineItemsDto> items = orderRequest.getOrderLineItemsDtoList();
+        if (items == null || items.isEmpty()) {
+            return "Order has no items";
+        }
+        for (OrderLineItemsDto item : items) {
+            if (item.getSkuCode() == null || item.getSkuCode().isBlank()) {
+                return "Item without skuCode";
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                return "Quantity of " + item.getSkuCode() + " must be positive";
+            }
+            if (item.getPrice() == null || item.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                return "Price of " + item.getSkuCode() + " must not be negative";
+            }
+        }
+        return null;
+    }
+
+    private static void requireValid(OrderRequest orderRequest) {
+        String validationError = validate(orderRequest);
+        if (validationError != null) {
+            throw new IllegalArgumentException(validationError);
+        }
+    }
+
+    // Package-private so the bulk import builds orders the same way
+    Order buildOrder(OrderRequest orderRequest) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setCustomerId(orderRequest.getCustomerId()); // Customer ID'yi set et
+        
+        List<OrderLineItems> orderLineItems = orderRequest.getOrderLineItemsDtoList()
+                .stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+        
+        order.setOrderLineItemsList(orderLineItems);
+
+        order.setTotalAmount(totalAmount(orderLineItems));
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+
+    // Summed in minor units, one BigDecimal for the result instead of two per line
+    static BigDecimal totalAmount(List<OrderLineItems> orderLineItems) {
+        long totalMinorUnits = 0L;
+        for (OrderLineItems item : orderLineItems) {
+            totalMinorUnits = Money.add(totalMinorUnits, Money.lineTotal(Money.toMinorUnits(item.getPrice()), item.getQuantity()));
+        }
+        return Money.toBigDecimal(totalMinorUnits);
     }
 
     private OrderLineItems mapToDto(OrderLineItemsDto orderLineItemsDto) {
@@ -121,73 +322,81 @@ public class OrderService {
         return orderLineItems;
     }
 
-    private void checkInventoryAvailability(List<OrderLineItems> orderLineItems) {
-        // Extract SKU codes from order items
-        List<String> skuCodes = orderLineItems.stream()
-                .map(OrderLineItems::getSkuCode)
-                .toList();
-
-        // Call inventory service to check stock
-        log.info("Calling inventory service");
-
-        Span inventoryServiceLookup = tracer.nextSpan().name("InventoryServiceLookup");
-
-        try (Tracer.SpanInScope spanInScope = tracer.withSpan(inventoryServiceLookup.start())){
-            InventoryResponse[] inventoryResponseArray = webClientBuilder.build().get()
-                    .uri("http://inventory-service/api/inventory/search", uriBuilder ->
-                            uriBuilder.queryParam("skuCode", skuCodes).build())
-                    .retrieve()
-                    .bodyToMono(InventoryResponse[].class)
-                    .block();
-
-            // Check if all items are in stock
-            if (inventoryResponseArray != null) {
-                for (OrderLineItems orderItem : orderLineItems) {
-                    boolean itemInStock = false;
-                    for (InventoryResponse inventoryItem : inventoryResponseArray) {
-                        if (inventoryItem.getSkuCode().equals(orderItem.getSkuCode())) {
-                            if (inventoryItem.getQuantity() >= orderItem.getQuantity()) {
-                                itemInStock = true;
-                                break;
-                            }
-                        }
-                    }
-                    if (!itemInStock) {
-                        throw new RuntimeException("Item with SKU " + orderItem.getSkuCode() + " is not in stock");
-                    }
-                }
+    private void adjustReservation(String orderNumber, Map<String, Integer> deltaBySku) {
+        if (deltaBySku.isEmpty()) {
+            return;
+        }
+        Span inventoryAdjustSpan = tracer.nextSpan().name("InventoryAdjust");
+
+        try (Tracer.SpanInScope spanInScope = tracer.withSpan(inventoryAdjustSpan.start())) {
+            TryReserveResponse tryReserveResponse = inventoryClient.adjust(orderNumber, deltaBySku).block();
+
+            if (tryReserveResponse == null || !tryReserveResponse.isReserved()) {
+                List<String> shortSkuCodes = tryReserveResponse != null ? tryReserveResponse.getShortSkuCodes() : List.of();
+                throw new RuntimeException("Items with SKU " + shortSkuCodes + " are not in stock");
             }
         } finally {
-            inventoryServiceLookup.end();
+            inventoryAdjustSpan.end();
         }
+    }
 
-
-        
-        log.info("Inventory check completed for order items");
+    private void revertReservation(String orderNumber, Map<String, Integer> deltaBySku) {
+        if (deltaBySku.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> reverse = new LinkedHashMap<>();
+        deltaBySku.forEach((skuCode, delta) -> reverse.put(skuCode, -delta));
+        try {
+            inventoryClient.adjust(orderNumber, reverse).block();
+        } catch (Exception e) {
+            log.error("Reservation of order {} could not be reverted: {}", orderNumber, e.getMessage());
+        }
     }
     
-    private void updateInventoryStock(List<OrderLineItems> orderLineItems) {
-        log.info("Updating inventory stock for order items");
+    private void reserveInventory(String orderNumber, List<OrderLineItems> orderLineItems) {
+        log.info("Reserving inventory stock for order {}", orderNumber);
         
-        Span inventoryUpdateSpan = tracer.nextSpan().name("InventoryUpdate");
+        Span inventoryReserveSpan = tracer.nextSpan().name("InventoryReserve");
         
-        try (Tracer.SpanInScope spanInScope = tracer.withSpan(inventoryUpdateSpan.start())) {
-            for (OrderLineItems orderItem : orderLineItems) {
-                // Call inventory service to reduce stock
-                webClientBuilder.build()
-                    .put()
-                    .uri("http://inventory-service/api/inventory/{skuCode}?quantity={quantity}", 
-                         orderItem.getSkuCode(), orderItem.getQuantity())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-                
-                log.info("Reduced stock for SKU: {} by quantity: {}", orderItem.getSkuCode(), orderItem.getQuantity());
+        try (Tracer.SpanInScope spanInScope = tracer.withSpan(inventoryReserveSpan.start())) {
+            TryReserveResponse tryReserveResponse = inventoryClient.tryReserve(orderNumber, orderLineItems).block();
+
+            if (tryReserveResponse == null || !tryReserveResponse.isReserved()) {
+                List<String> shortSkuCodes = tryReserveResponse != null ? tryReserveResponse.getShortSkuCodes() : List.of();
+                throw new RuntimeException("Items with SKU " + shortSkuCodes + " are not in stock");
             }
+
+            log.info("Stock reserved for order {} with reservation {}", orderNumber, tryReserveResponse.getReservationId());
         } finally {
-            inventoryUpdateSpan.end();
+            inventoryReserveSpan.end();
+        }
+    }
+
+    private Order saveWithOutbox(Order order) {
+        Order savedOrder = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            orderOutbox.orderPlaced(saved);
+            return saved;
+        });
+        // The new order belongs on the customer's first page
+        orderCache.evict(null, order.getCustomerId());
+        return savedOrder;
+    }
+
+    private void recordFailure(String orderNumber, Throwable error) {
+        try {
+            orderOutbox.orderFailed(orderNumber, error);
+        } catch (Exception e) {
+            log.error("Failure of order {} could not be queued for log-service: {}", orderNumber, e.getMessage());
+        }
+    }
+
+    private void releaseReservation(String orderNumber) {
+        try {
+            inventoryClient.release(orderNumber).block();
+            log.info("Reservation released for order {}", orderNumber);
+        } catch (Exception e) {
+            log.error("Reservation release failed for order {}: {}", orderNumber, e.getMessage());
         }
-        
-        log.info("Inventory stock update completed");
     }
 }
@@ -0,0 +1,152 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.OrderStatusResponse;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import com.feritbilgi.order_service.repository.OrderStatusView;
+import com.feritbilgi.shared.annotation.LogOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves orders through their lifecycle. A chunk of orders is read as (id, orderNumber, customerId,
+ * status, version) under a row lock and moved with one status-guarded UPDATE; line items are never loaded.
+ * Cancelling queues an INVENTORY_RELEASE outbox event so the stock goes back after the commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusService {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final OrderCache orderCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.status.batch-size:1000}")
+    private int batchSize;
+
+    @LogOperation(operation = "ORDER_STATUS_CHANGED", description = "Sipariş durumu güncellendi")
+    public OrderStatusResponse transition(Long orderId, OrderStatus status) {
+        OrderStatusResponse response = transitionAll(List.of(orderId), status);
+        String rejection = response.getRejectedOrderIds().get(orderId);
+        if (rejection != null) {
+            throw new RuntimeException(rejection);
+        }
+        return response;
+    }
+
+    /**
+     * Bulk transition, e.g. a warehouse shipping batch. Orders that do not exist or cannot
+     * move to the status are reported per id, the others are moved in chunks of batch-size.
+     */
+    @LogOperation(operation = "ORDER_STATUS_CHANGED", description = "Toplu sipariş durumu güncellendi")
+    public OrderStatusResponse transitionAll(List<Long> orderIds, OrderStatus status) {
+        if (status == null) {
+            throw new RuntimeException("Target status is required");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<Long> transitioned = new ArrayList<>(distinctIds.size());
+        Map<Long, String> rejected = new LinkedHashMap<>();
+
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size()));
+            transitionChunk(chunk, status, transitioned, rejected);
+        }
+
+        log.info("{} orders moved to {}, {} rejected", transitioned.size(), status, rejected.size());
+        return OrderStatusResponse.builder()
+                .status(status)
+                .transitionedOrderIds(transitioned)
+                .rejectedOrderIds(rejected)
+                .build();
+    }
+
+    /**
+     * Fails the orders whose stock commit the outbox relay gave up on, so they do not stay
+     * placed without stock. Orders that were shipped or closed meanwhile keep their status.
+     * Joins the relay's transaction that marks the commit events FAILED.
+     */
+    public void failOrders(Map<String, String> errorByOrderNumber) {
+        List<Long> orderIds = orderRepository.findByOrderNumberIn(errorByOrderNumber.keySet()).stream()
+                .map(OrderStatusView::getId)
+                .toList();
+        OrderStatusResponse response = transitionAll(orderIds, OrderStatus.FAILED);
+        orderOutbox.stockCommitFailed(errorByOrderNumber);
+        if (!response.getRejectedOrderIds().isEmpty()) {
+            log.warn("Stock commit failed for orders that cannot be failed: {}", response.getRejectedOrderIds().values());
+        }
+    }
+
+    private void transitionChunk(List<Long> orderIds, OrderStatus status, List<Long> transitioned, Map<Long, String> rejected) {
+        List<OrderStatusView> moved = transactionTemplate.execute(txStatus -> {
+            Map<Long, OrderStatusView> viewsById = new LinkedHashMap<>();
+            orderRepository.findForUpdateByIdIn(orderIds).forEach(view -> viewsById.put(view.getId(), view));
+
+            List<OrderStatusView> eligible = new ArrayList<>(viewsById.size());
+            for (Long orderId : orderIds) {
+                OrderStatusView view = viewsById.get(orderId);
+                if (view == null) {
+                    rejected.put(orderId, "Order not found with id: " + orderId);
+                } else if (!view.getStatus().canTransitionTo(status)) {
+                    rejected.put(orderId, "Order " + view.getOrderNumber() + " cannot move from " + view.getStatus() + " to " + status);
+                } else {
+                    eligible.add(view);
+                }
+            }
+            if (eligible.isEmpty()) {
+                return eligible;
+            }
+
+            // One guarded UPDATE for the chunk, then a re-read: a row this call moved is at the target
+            // status exactly one version later, only those get outbox events
+            List<Long> eligibleIds = eligible.stream().map(OrderStatusView::getId).toList();
+            int updated = orderRepository.transitionStatus(eligibleIds, sourceStatuses(status), status);
+            Map<Long, OrderStatusView> afterById = new HashMap<>();
+            if (updated > 0) {
+                orderRepository.findByIdIn(eligibleIds).forEach(view -> afterById.put(view.getId(), view));
+            }
+            List<OrderStatusView> changed = new ArrayList<>(updated);
+            for (OrderStatusView view : eligible) {
+                OrderStatusView after = afterById.get(view.getId());
+                if (after != null && after.getStatus() == status && after.getVersion() == view.getVersion() + 1) {
+                    changed.add(view);
+                } else {
+                    rejected.put(view.getId(), "Order " + view.getOrderNumber() + " was changed concurrently");
+                }
+            }
+            if (changed.isEmpty()) {
+                return changed;
+            }
+
+            orderOutbox.statusChanged(changed.stream().map(OrderStatusView::getOrderNumber).toList(), status);
+            return changed;
+        });
+
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (OrderStatusView view : moved) {
+            transitioned.add(view.getId());
+            orderCache.evict(view.getId(), null);
+            customerIds.add(view.getCustomerId());
+        }
+        customerIds.forEach(customerId -> orderCache.evict(null, customerId));
+    }
+
+    private List<OrderStatus> sourceStatuses(OrderStatus status) {
+        return Arrays.stream(OrderStatus.values())
+                .filter(source -> source.canTransitionTo(status))
+                .toList();
+    }
+}
@@ -0,0 +1,58 @@
+package com.feritbilgi.order_service.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time-ordered order numbers: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and 12 bits of sequence, written as 19 zero padded digits so the
+ * string order is the numeric order. New numbers land at the right end of an index.
+ * <p>
+ * Timestamp and sequence live in one AtomicLong that only moves forward: more than 4096
+ * numbers in a millisecond, or a clock going backwards, borrow from the next millisecond
+ * instead of repeating. Numbers are unique across instances as long as node ids differ.
+ */
+public class TimeOrderedOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final String ZEROS = "0000000000000000000";
+
+    private final long nodeBits;
+    private final Clock clock;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last number handed out
+    private final AtomicLong lastState = new AtomicLong();
+
+    public TimeOrderedOrderNumberGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    TimeOrderedOrderNumberGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    @Override
+    public String next() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        long nowState = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long state = lastState.updateAndGet(last -> Math.max(last + 1, nowState));
+        long millis = state >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (state & SEQUENCE_MASK);
+    }
+
+    private static String format(long id) {
+        String digits = Long.toString(id);
+        return digits.length() >= ZEROS.length() ? digits : ZEROS.substring(digits.length()) + digits;
+    }
+}
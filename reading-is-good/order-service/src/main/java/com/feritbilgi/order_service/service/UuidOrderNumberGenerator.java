@@ -0,0 +1,14 @@
+package com.feritbilgi.order_service.service;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs, as before. Goes through SecureRandom and gives keys in random index order.
+ */
+public class UuidOrderNumberGenerator implements OrderNumberGenerator {
+
+    @Override
+    public String next() {
+        return UUID.randomUUID().toString();
+    }
+}
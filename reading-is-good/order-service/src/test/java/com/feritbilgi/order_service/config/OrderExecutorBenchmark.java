@@ -0,0 +1,76 @@
+package com.feritbilgi.order_service.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time to place 1000 concurrent orders that each block 20 ms on inventory-service, on the
+ * ForkJoin common pool against virtual threads. Run the main method from the test classpath
+ * (not part of mvn test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrderExecutorBenchmark {
+
+    private static final int CONCURRENT_ORDERS = 1000;
+    private static final Duration INVENTORY_CALL = Duration.ofMillis(20);
+
+    @Param({"common-pool", "virtual"})
+    public String executorType;
+
+    private BoundedExecutor executor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        executor = new OrderExecutorConfig().orderPlacementExecutor(executorType, CONCURRENT_ORDERS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public void placeThousandOrders() {
+        CompletableFuture.allOf(IntStream.range(0, CONCURRENT_ORDERS)
+                        .mapToObj(i -> executor.supplyAsync(() -> {
+                            try {
+                                Thread.sleep(INVENTORY_CALL);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return "Order placed successfully";
+                        }))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderExecutorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.feritbilgi.order_service.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Throughput against the common pool is measured by OrderExecutorBenchmark, not here
+class OrderExecutorConfigTests {
+
+    private static final int CONCURRENT_ORDERS = 1000;
+    private static final Duration INVENTORY_CALL = Duration.ofMillis(5); // Simulated blocking call to inventory-service
+
+    private final OrderExecutorConfig config = new OrderExecutorConfig();
+
+    @Test
+    void maxConcurrencyLimitsRunningOrders() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (BoundedExecutor executor = config.orderPlacementExecutor("virtual", 50)) {
+            List<CompletableFuture<String>> orders = IntStream.range(0, CONCURRENT_ORDERS)
+                    .mapToObj(i -> executor.supplyAsync(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(INVENTORY_CALL);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            running.decrementAndGet();
+                        }
+                        return "Order placed successfully";
+                    }))
+                    .toList();
+            CompletableFuture.allOf(orders.toArray(CompletableFuture[]::new)).join();
+            assertEquals(50, executor.availablePermits());
+        }
+        assertTrue(maxRunning.get() <= 50, "max running orders was " + maxRunning.get());
+    }
+
+    @Test
+    void orderInterruptedWhileWaitingForASlotFails() throws Exception {
+        List<Runnable> tasks = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedExecutor executor = new BoundedExecutor(tasks::add, 1);
+
+        CompletableFuture<String> running = executor.supplyAsync(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        });
+        CompletableFuture<String> waiting = executor.supplyAsync(() -> "second");
+
+        Thread.ofVirtual().start(tasks.get(0));
+        // Interrupted before it gets the only permit, acquire() fails straight away
+        Thread.ofVirtual().start(() -> {
+            Thread.currentThread().interrupt();
+            tasks.get(1).run();
+        });
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertFalse(running.isDone());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.availablePermits());
+    }
+}
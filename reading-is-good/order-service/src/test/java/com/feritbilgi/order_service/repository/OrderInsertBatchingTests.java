@@ -0,0 +1,126 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserts orders with 10-50 line items once without JDBC batching (session batch size 1,
+ * what IDENTITY ids forced before) and once with the configured batch size. The default
+ * run only compares statement counts; the timing run is tagged benchmark (-Pbenchmark).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.show-sql=false"
+})
+@Slf4j
+class OrderInsertBatchingTests {
+
+    private static final int ORDER_COUNT = 50;
+    private static final int BENCHMARK_ORDER_COUNT = 500;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchedInsertsUseFarFewerStatementsThanRowByRow() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        InsertRun rowByRow = insertOrders(ORDER_COUNT, 1, statistics);
+        InsertRun batched = insertOrders(ORDER_COUNT, 50, statistics);
+
+        assertTrue(batched.statements() * 10 < rowByRow.statements(),
+                "batched " + batched.statements() + " statements, row by row " + rowByRow.statements());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void batchedInsertThroughput() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        insertOrders(BENCHMARK_ORDER_COUNT, 1, statistics); // Warm up
+
+        InsertRun rowByRow = insertOrders(BENCHMARK_ORDER_COUNT, 1, statistics);
+        InsertRun batched = insertOrders(BENCHMARK_ORDER_COUNT, 50, statistics);
+
+        log.info("{} orders with 10-50 lines: row by row {} ms ({} statements), batched {} ms ({} statements)",
+                BENCHMARK_ORDER_COUNT, rowByRow.millis(), rowByRow.statements(), batched.millis(), batched.statements());
+        assertTrue(batched.statements() * 10 < rowByRow.statements());
+    }
+
+    private InsertRun insertOrders(int orderCount, int jdbcBatchSize, Statistics statistics) {
+        List<Order> orders = orders(orderCount, new Random(42));
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        statistics.clear();
+
+        long start = System.nanoTime();
+        orderRepository.saveAll(orders);
+        entityManager.flush();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        entityManager.clear();
+        return new InsertRun(millis, statistics.getPrepareStatementCount());
+    }
+
+    private List<Order> orders(int orderCount, Random random) {
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            int lineCount = 10 + random.nextInt(41);
+            List<OrderLineItems> lineItems = new ArrayList<>(lineCount);
+            for (int line = 0; line < lineCount; line++) {
+                lineItems.add(OrderLineItems.builder()
+                        .skuCode("sku_" + line)
+                        .price(BigDecimal.valueOf(10))
+                        .quantity(1 + random.nextInt(3))
+                        .build());
+            }
+            orders.add(Order.builder()
+                    .orderNumber(UUID.randomUUID().toString())
+                    .customerId((long) (i % 10))
+                    .orderLineItemsList(lineItems)
+                    .totalAmount(BigDecimal.valueOf(10L * lineCount))
+                    .status(OrderStatus.PENDING)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return orders;
+    }
+
+    private record InsertRun(long millis, long statements) {
+    }
+}
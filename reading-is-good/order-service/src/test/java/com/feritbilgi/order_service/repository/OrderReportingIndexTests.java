@@ -0,0 +1,142 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads t_orders through JDBC batches and checks that the reporting queries of
+ * statistics-service are planned on the covering indexes. The latency run is tagged
+ * benchmark (-Pbenchmark) and loads 200k rows by default; add
+ * -Dorders.benchmark.rows=10000000 for the 10M figures.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+@Slf4j
+class OrderReportingIndexTests {
+
+    private static final int PLAN_ROWS = 5_000;
+    private static final int BENCHMARK_ROWS = Integer.getInteger("orders.benchmark.rows", 200_000);
+    private static final int CUSTOMER_COUNT = 1000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 7, 1, 0, 0);
+    private static final int RUNS = 20;
+
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void reportingQueriesRunOnTheirIndexes() {
+        loadOrders(PLAN_ROWS);
+
+        assertPlanUses("select count(*), coalesce(sum(total_amount), 0) from t_orders " +
+                "where customer_id = 7 and created_at >= timestamp '2024-06-01 00:00:00' and created_at < timestamp '2024-07-01 00:00:00'",
+                "idx_orders_customer_created_at_id");
+        assertPlanUses("select count(*), coalesce(sum(total_amount), 0) from t_orders " +
+                "where status = 'SHIPPED' and created_at >= timestamp '2024-06-01 00:00:00' and created_at < timestamp '2024-07-01 00:00:00'",
+                "idx_orders_status_created_at_id");
+        assertPlanUses("select id from t_orders where order_number = '0000000000000000042'", "uk_orders_order_number");
+
+        assertEquals(42L, orderRepository.findByOrderNumber("0000000000000000042").orElseThrow().getId());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportingQueryLatency() {
+        loadOrders(BENCHMARK_ROWS);
+
+        report("customer totals, one month", () -> orderRepository.sumByCustomerIdAndCreatedAtRange(7L, FROM, TO));
+        report("status totals, one month", () -> orderRepository.sumByStatusAndCreatedAtRange(OrderStatus.SHIPPED, FROM, TO));
+        report("customer orders, one month page", () -> orderRepository.findByCustomerIdAndCreatedAtRange(7L, FROM, TO, Limit.of(50)));
+        report("status orders, one month page", () -> orderRepository.findByStatusAndCreatedAtRange(OrderStatus.SHIPPED, FROM, TO, Limit.of(50)));
+        report("order by number", () -> orderRepository.findByOrderNumber("0000000000000000042"));
+    }
+
+    private void loadOrders(int rows) {
+        Random random = new Random(42);
+        long spanMinutes = Duration.between(START, START.plusYears(2)).toMinutes();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into t_orders (id, order_number, customer_id, total_amount, status, created_at, partition_month, version) " +
+                            "values (?, ?, ?, ?, ?, ?, ?, 0)")) {
+                for (int i = 1; i <= rows; i++) {
+                    insert.setLong(1, i);
+                    insert.setString(2, String.format("%019d", i));
+                    insert.setLong(3, random.nextInt(CUSTOMER_COUNT));
+                    insert.setBigDecimal(4, BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+                    insert.setString(5, OrderStatus.values()[random.nextInt(OrderStatus.values().length)].name());
+                    LocalDateTime createdAt = START.plusMinutes((long) (random.nextDouble() * spanMinutes));
+                    insert.setTimestamp(6, Timestamp.valueOf(createdAt));
+                    insert.setInt(7, Order.partitionMonthOf(createdAt));
+                    insert.addBatch();
+                    if (i % 1000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("analyze");
+            }
+        });
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("explain " + sql)) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+        assertTrue(plan.toLowerCase().contains(index), "expected " + index + " in plan: " + plan);
+    }
+
+    private void report(String name, Supplier<Object> query) {
+        query.get(); // Warm up
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            query.get();
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        log.info("{} rows, {}: median {} us, max {} us", BENCHMARK_ROWS, name, micros[RUNS / 2], micros[RUNS - 1]);
+    }
+}
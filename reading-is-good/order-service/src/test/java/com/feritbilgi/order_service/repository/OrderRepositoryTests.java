@@ -0,0 +1,213 @@
+package com.feritbilgi.order_service.repository;
+
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class OrderRepositoryTests {
+
+    private static final int ORDER_COUNT = 1000;
+    private static final int LINE_ITEMS_PER_ORDER = 3;
+    private static final int CUSTOMER_COUNT = 10;
+    private static final long PAGED_CUSTOMER_ID = 99L;
+    private static final int PAGE_SIZE = 2;
+    // The setUp orders are created now, every paged order is older than this
+    private static final LocalDateTime PAGED_BEFORE = LocalDateTime.of(2024, 3, 1, 0, 0, 1);
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Long> orderIds;
+
+    @BeforeEach
+    void setUp() {
+        orderIds = orderRepository.saveAll(IntStream.range(0, ORDER_COUNT)
+                        .mapToObj(i -> order((long) (i % CUSTOMER_COUNT)))
+                        .toList())
+                .stream()
+                .map(Order::getId)
+                .toList();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findWithLineItemsByIdInLoadsOrdersWithLineItemsInOneStatement() {
+        // The archive's read of a batch of orders
+        List<Order> orders = orderRepository.findWithLineItemsByIdIn(orderIds);
+
+        assertEquals(ORDER_COUNT, orders.size());
+        assertEquals(ORDER_COUNT * LINE_ITEMS_PER_ORDER, countLineItems(orders));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithLineItemsByIdLoadsTheOrderWithLineItemsInOneStatement() {
+        Order order = orderRepository.findWithLineItemsById(orderIds.get(0)).orElseThrow();
+
+        assertEquals(LINE_ITEMS_PER_ORDER, order.getOrderLineItemsList().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void customerFirstPageLoadsLineItemsInOneBatch() {
+        // The page itself has no entity graph, a fetch join would page in memory; @BatchSize(100) covers the page
+        List<Order> orders = orderRepository.findFirstPageByCustomerId(7L, Limit.of(ORDER_COUNT / CUSTOMER_COUNT));
+
+        assertEquals(ORDER_COUNT / CUSTOMER_COUNT, orders.size());
+        assertEquals(ORDER_COUNT / CUSTOMER_COUNT * LINE_ITEMS_PER_ORDER, countLineItems(orders));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lazyPathLoadsLineItemsInBatches() {
+        // findAllById has no entity graph, so items come through @BatchSize(100): 1 + 1000 / 100 statements
+        List<Order> orders = orderRepository.findAllById(orderIds);
+
+        assertEquals(ORDER_COUNT * LINE_ITEMS_PER_ORDER, countLineItems(orders));
+        assertEquals(1 + ORDER_COUNT / 100, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void customerPagesSplitCreatedAtTiesWithoutSkippingOrRepeating() {
+        List<Long> expected = pagedOrderIds();
+
+        List<Long> walked = walkPages(orderRepository.findFirstPageByCustomerId(PAGED_CUSTOMER_ID, Limit.of(PAGE_SIZE + 1)),
+                last -> orderRepository.findPageByCustomerIdAfter(PAGED_CUSTOMER_ID, last.getCreatedAt(), last.getId(),
+                        Limit.of(PAGE_SIZE + 1)));
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void pagesAfterACursorSplitCreatedAtTiesWithoutSkippingOrRepeating() {
+        List<Long> expected = pagedOrderIds();
+
+        List<Long> walked = walkPages(orderRepository.findPageAfter(PAGED_BEFORE, Long.MAX_VALUE, Limit.of(PAGE_SIZE + 1)),
+                last -> orderRepository.findPageAfter(last.getCreatedAt(), last.getId(), Limit.of(PAGE_SIZE + 1)));
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void monthBoundOfAPageKeepsEarlierMonthsAndYears() {
+        pagedOrderIds();
+        // A cursor on the first instant of March: the rest is in February, January and December of the year before
+        Order first = orderRepository.findFirstPageByCustomerId(PAGED_CUSTOMER_ID, Limit.of(1)).get(0);
+
+        List<Order> rest = orderRepository.findPageByCustomerIdAfter(PAGED_CUSTOMER_ID, first.getCreatedAt(), first.getId(),
+                Limit.of(100));
+
+        assertEquals(202403, Order.partitionMonthOf(first.getCreatedAt()));
+        assertEquals(List.of(202403, 202403, 202402, 202402, 202401, 202312, 202312, 202312),
+                rest.stream().map(Order::getPartitionMonth).toList());
+        // The bound is what the query filters on: one month less and the cursor's own month is gone
+        assertEquals(List.of(202402, 202402, 202401, 202312, 202312, 202312),
+                orderRepository.findPageByCustomerIdAfterInMonths(PAGED_CUSTOMER_ID, first.getCreatedAt(), first.getId(),
+                        202402, Limit.of(100)).stream().map(Order::getPartitionMonth).toList());
+    }
+
+    // Three orders on one instant, so page boundaries of two fall inside the ties, then across month and year ends
+    private List<Long> pagedOrderIds() {
+        List<Order> orders = new ArrayList<>();
+        for (LocalDateTime createdAt : List.of(
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 29, 23, 59, 59), LocalDateTime.of(2024, 2, 29, 23, 59, 59),
+                LocalDateTime.of(2024, 1, 15, 12, 0),
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59), LocalDateTime.of(2023, 12, 31, 23, 59, 59),
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59))) {
+            orders.add(orderRepository.save(order(PAGED_CUSTOMER_ID, createdAt)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return orders.stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+    }
+
+    // Pages like OrderService: one row more than the page size, the last row shown is the cursor of the next page
+    private List<Long> walkPages(List<Order> firstPage, Function<Order, List<Order>> pageAfter) {
+        List<Long> walked = new ArrayList<>();
+        List<Order> page = firstPage;
+        while (true) {
+            List<Order> shown = page.subList(0, Math.min(PAGE_SIZE, page.size()));
+            shown.forEach(order -> walked.add(order.getId()));
+            if (page.size() <= PAGE_SIZE) {
+                return walked;
+            }
+            page = pageAfter.apply(shown.get(PAGE_SIZE - 1));
+        }
+    }
+
+    private int countLineItems(List<Order> orders) {
+        return orders.stream().mapToInt(order -> order.getOrderLineItemsList().size()).sum();
+    }
+
+    private Order order(Long customerId) {
+        return order(customerId, LocalDateTime.now());
+    }
+
+    private Order order(Long customerId, LocalDateTime createdAt) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        for (int i = 0; i < LINE_ITEMS_PER_ORDER; i++) {
+            lineItems.add(OrderLineItems.builder()
+                    .skuCode("sku_" + i)
+                    .price(BigDecimal.TEN)
+                    .quantity(1)
+                    .build());
+        }
+        return Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(customerId)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.valueOf(30))
+                .status(OrderStatus.PENDING)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.feritbilgi.order_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+
+    private static final int THREADS = 8;
+
+    private final AtomicInteger submissions = new AtomicInteger();
+
+    @Test
+    void repeatedKeyGetsTheStoredResult() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1));
+
+        CompletableFuture<String> first = store.execute("customer:key-1", () -> placed("Order placed successfully"));
+        CompletableFuture<String> repeated = store.execute("customer:key-1", () -> placed("second order"));
+
+        assertEquals("Order placed successfully", first.get());
+        assertEquals("Order placed successfully", repeated.get());
+        assertEquals(1, submissions.get());
+        assertEquals("second order", store.execute("customer:key-2", () -> placed("second order")).get());
+    }
+
+    @Test
+    void cancellingTheCallersCopyKeepsTheStoredSubmission() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1));
+        CompletableFuture<String> placement = new CompletableFuture<>();
+
+        CompletableFuture<String> timedOut = store.execute("customer:key-1", () -> submit(placement));
+        // What a TimeLimiter does to the caller's future
+        timedOut.cancel(true);
+        CompletableFuture<String> retried = store.execute("customer:key-1", () -> placed("second order"));
+        placement.complete("Order placed successfully");
+
+        assertNotSame(placement, timedOut);
+        assertFalse(placement.isCancelled());
+        assertEquals("Order placed successfully", retried.get());
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneSubmission() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1));
+        CompletableFuture<String> placement = new CompletableFuture<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<CompletableFuture<String>>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return store.execute("customer:key-1", () -> submit(placement));
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (Future<CompletableFuture<String>> call : calls) {
+                results.add(call.get(10, TimeUnit.SECONDS));
+            }
+            // Every caller waits on the one placement that is still running
+            assertTrue(results.stream().noneMatch(CompletableFuture::isDone));
+            placement.complete("Order placed successfully");
+
+            for (CompletableFuture<String> result : results) {
+                assertEquals("Order placed successfully", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, submissions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedSubmissionIsNotStored() throws Exception {
+        IdempotencyStore store = store(Duration.ofHours(1));
+
+        CompletableFuture<String> failed = store.execute("customer:key-1",
+                () -> submit(CompletableFuture.failedFuture(new RuntimeException("Items with SKU [kitap] are not in stock"))));
+        ExecutionException exception = assertThrows(ExecutionException.class, failed::get);
+        CompletableFuture<String> retried = store.execute("customer:key-1", () -> placed("Order placed successfully"));
+
+        assertEquals("Items with SKU [kitap] are not in stock", exception.getCause().getMessage());
+        assertEquals("Order placed successfully", retried.get());
+        assertEquals(2, submissions.get());
+    }
+
+    @Test
+    void storedResultExpiresAfterTheTtl() throws Exception {
+        IdempotencyStore store = store(Duration.ofMillis(50));
+
+        assertEquals("first order", store.execute("customer:key-1", () -> placed("first order")).get());
+        Thread.sleep(200);
+
+        assertEquals("second order", store.execute("customer:key-1", () -> placed("second order")).get());
+        assertEquals(2, submissions.get());
+    }
+
+    private IdempotencyStore store(Duration ttl) {
+        return new IdempotencyStore(ttl, 100, new SimpleMeterRegistry());
+    }
+
+    private CompletableFuture<String> placed(String result) {
+        return submit(CompletableFuture.completedFuture(result));
+    }
+
+    private CompletableFuture<String> submit(CompletableFuture<String> placement) {
+        submissions.incrementAndGet();
+        return placement;
+    }
+}
@@ -0,0 +1,102 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.shared.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal multiply/reduce against minor-unit sums: basket totals for 10, 100 and 1000 lines,
+ * and the statistics sum over a million order totals. Run with -prof gc to see the allocations.
+ * Run the main method from the test classpath (not part of mvn test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    private List<OrderLineItems> basket;
+    private BigDecimal[] orderTotals;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        basket = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            OrderLineItems item = new OrderLineItems();
+            item.setSkuCode("sku-" + i);
+            item.setPrice(BigDecimal.valueOf(random.nextLong(100, 100_000), Money.SCALE));
+            item.setQuantity(random.nextInt(1, 10));
+            basket.add(item);
+        }
+        orderTotals = new BigDecimal[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            orderTotals[i] = BigDecimal.valueOf(random.nextLong(100, 10_000_000), Money.SCALE);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal basketBigDecimal() {
+        return basket.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal basketMinorUnits() {
+        return OrderService.totalAmount(basket);
+    }
+
+    // Independent of lines, JMH still runs it once per @Param value
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BigDecimal millionOrdersBigDecimal() {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (BigDecimal total : orderTotals) {
+            amount = amount.add(total);
+        }
+        return amount;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BigDecimal millionOrdersMinorUnits() {
+        long amountMinorUnits = 0L;
+        for (BigDecimal total : orderTotals) {
+            amountMinorUnits = Money.add(amountMinorUnits, Money.toMinorUnits(total));
+        }
+        return Money.toBigDecimal(amountMinorUnits);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
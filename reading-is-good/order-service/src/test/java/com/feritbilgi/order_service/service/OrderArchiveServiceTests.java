@@ -0,0 +1,115 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.ArchivedOrderRepository;
+import com.feritbilgi.order_service.repository.ArchivedOrderTotalsView;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderArchiveServiceTests {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                new DefaultListableBeanFactory().getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+        orderArchiveService = new OrderArchiveService(orderRepository, archivedOrderRepository, orderCache,
+                new TransactionTemplate(transactionManager), new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(orderArchiveService, "enabled", true);
+        ReflectionTestUtils.setField(orderArchiveService, "afterMonths", 12);
+        ReflectionTestUtils.setField(orderArchiveService, "batchSize", 2);
+    }
+
+    @Test
+    void closedOldOrdersMoveToTheArchiveAndStillCountInStatistics() {
+        LocalDateTime old = LocalDateTime.now().minusMonths(18);
+        Order delivered = order(OrderStatus.DELIVERED, old, 2, 3);
+        order(OrderStatus.CANCELLED, old, 1);
+        order(OrderStatus.SHIPPED, old, 4); // Still open, stays in t_orders
+        order(OrderStatus.DELIVERED, LocalDateTime.now().minusMonths(1), 5); // Too recent
+
+        orderArchiveService.archiveClosedOrders();
+        entityManager.clear();
+
+        assertEquals(2, orderRepository.count());
+        assertEquals(2, archivedOrderRepository.count());
+        assertTrue(orderRepository.findByOrderNumber(delivered.getOrderNumber()).isEmpty());
+        Order restored = orderArchiveService.findByOrderNumber(delivered.getOrderNumber()).orElseThrow();
+        assertEquals(2, restored.getOrderLineItemsList().size());
+
+        ArchivedOrderTotalsView archived = orderArchiveService.totalsByCustomerId(7L, FROM, LocalDateTime.now());
+        assertEquals(2, archived.getOrderCount());
+        assertEquals(6, archived.getBookCount());
+        assertEquals(0, BigDecimal.valueOf(60).compareTo(archived.getTotalAmount()));
+    }
+
+    // Every line costs 10, one line per given quantity
+    private Order order(OrderStatus status, LocalDateTime createdAt, int... quantities) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        int bookCount = 0;
+        for (int quantity : quantities) {
+            lineItems.add(OrderLineItems.builder().skuCode("book-" + lineItems.size()).price(BigDecimal.TEN).quantity(quantity).build());
+            bookCount += quantity;
+        }
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(7L)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.valueOf(10L * bookCount))
+                .status(status)
+                .createdAt(createdAt)
+                .build());
+        entityManager.flush();
+        return order;
+    }
+}
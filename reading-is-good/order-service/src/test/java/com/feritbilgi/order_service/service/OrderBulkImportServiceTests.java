@@ -0,0 +1,162 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.dto.BulkOrderResult;
+import com.feritbilgi.order_service.dto.TryReserveResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderBulkImportServiceTests {
+
+    private static final String IN_STOCK = "{\"orderLineItemsDtoList\":[{\"skuCode\":\"book-1\",\"price\":10,\"quantity\":2}]}";
+    private static final String OUT_OF_STOCK = "{\"orderLineItemsDtoList\":[{\"skuCode\":\"book-1\",\"price\":10,\"quantity\":1}," +
+            "{\"skuCode\":\"sold-out\",\"price\":5,\"quantity\":1}]}";
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<Integer> reserveCallSizes = new ArrayList<>();
+    private boolean inventoryDown;
+    private OrderBulkImportService orderBulkImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Answers like inventory-service: in request order, an order is short when it has a sold-out line
+        InventoryClient inventoryClient = new InventoryClient(null) {
+            @Override
+            public Mono<TryReserveResponse[]> tryReserveAll(List<Order> orders) {
+                reserveCallSizes.add(orders.size());
+                if (inventoryDown) {
+                    inventoryDown = false;
+                    return Mono.error(new IllegalStateException("inventory-service is not reachable"));
+                }
+                return Mono.just(orders.stream()
+                        .map(order -> {
+                            List<String> shortSkuCodes = order.getOrderLineItemsList().stream()
+                                    .map(OrderLineItems::getSkuCode)
+                                    .filter("sold-out"::equals)
+                                    .toList();
+                            return new TryReserveResponse(shortSkuCodes.isEmpty(),
+                                    shortSkuCodes.isEmpty() ? order.getOrderNumber() : null, null, shortSkuCodes);
+                        })
+                        .toArray(TryReserveResponse[]::new));
+            }
+        };
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OrderOutbox orderOutbox = new OrderOutbox(orderOutboxRepository, objectMapper);
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                new DefaultListableBeanFactory().getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+        // Only buildOrder is used, the reactive and tracing dependencies stay unset
+        OrderService orderService = new OrderService(orderRepository, inventoryClient, null, null, orderOutbox,
+                transactionTemplate, orderCache, new TimeOrderedOrderNumberGenerator(1), null);
+
+        orderBulkImportService = new OrderBulkImportService(orderService, orderRepository, inventoryClient, orderOutbox,
+                orderCache, transactionTemplate, objectMapper);
+        ReflectionTestUtils.setField(orderBulkImportService, "chunkSize", 2);
+    }
+
+    @Test
+    void everyLineIsReportedInRequestOrder() throws IOException {
+        List<BulkOrderResult> results = importOrders(
+                IN_STOCK,
+                "{\"orderLineItemsDtoList\":[]}",
+                OUT_OF_STOCK,
+                "{\"customerId\":9,\"orderLineItemsDtoList\":[{\"skuCode\":\"book-2\",\"price\":10,\"quantity\":1}]}",
+                "{\"orderLineItemsDtoList\":[{\"skuCode\":\"book-1\",\"price\":10,\"quantity\":0}]}");
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), results.stream().map(BulkOrderResult::getLine).toList());
+        assertEquals(List.of("CREATED", "REJECTED", "REJECTED", "CREATED", "REJECTED"),
+                results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals("Order has no items", results.get(1).getMessage());
+        assertNull(results.get(1).getOrderNumber());
+        assertEquals("Items are not in stock", results.get(2).getMessage());
+        assertEquals(List.of("sold-out"), results.get(2).getShortSkuCodes());
+        assertEquals("Quantity of book-1 must be positive", results.get(4).getMessage());
+
+        // Invalid orders never reach the inventory call of their chunk
+        assertEquals(List.of(1, 2), reserveCallSizes);
+        assertEquals(2, orderRepository.count());
+        assertEquals(1L, orderRepository.findByOrderNumber(results.get(0).getOrderNumber()).orElseThrow().getCustomerId());
+        assertEquals(9L, orderRepository.findByOrderNumber(results.get(3).getOrderNumber()).orElseThrow().getCustomerId());
+        assertTrue(orderRepository.findByOrderNumber(results.get(2).getOrderNumber()).isEmpty());
+    }
+
+    @Test
+    void inventoryFailureRejectsOnlyItsChunk() throws IOException {
+        inventoryDown = true;
+
+        List<BulkOrderResult> results = importOrders(IN_STOCK, IN_STOCK, IN_STOCK);
+
+        assertEquals(List.of("REJECTED", "REJECTED", "CREATED"), results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals("Inventory did not answer for this order", results.get(0).getMessage());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void malformedLineStopsTheImportAfterReportingEarlierOrders() throws IOException {
+        List<BulkOrderResult> results = importOrders(IN_STOCK, IN_STOCK, IN_STOCK, "{not json", IN_STOCK);
+
+        assertEquals(4, results.size());
+        assertEquals(List.of("CREATED", "CREATED", "CREATED", "REJECTED"), results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals(4L, results.get(3).getLine());
+        assertTrue(results.get(3).getMessage().startsWith("Malformed order, import stopped"));
+        assertEquals(3, orderRepository.count());
+    }
+
+    private List<BulkOrderResult> importOrders(String... lines) throws IOException {
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        orderBulkImportService.importOrders(
+                new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), 1L, report);
+
+        List<BulkOrderResult> results = new ArrayList<>();
+        for (String line : report.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkOrderResult.class));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,228 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.dto.OrderLineItemsDto;
+import com.feritbilgi.order_service.dto.OrderPageResponse;
+import com.feritbilgi.order_service.dto.OrderRequest;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.ArchivedOrderRepository;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Every write path must drop the cached single order and the cached first page of the
+ * customers it touches. The entity manager is cleared before each read, so an entry that
+ * was not evicted is the very same instance as before the write.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderCacheTests {
+
+    private static final int PAGE_SIZE = 10;
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<String> publishedEvictions = new ArrayList<>();
+    private BiConsumer<Long, Long> remoteEvictionListener;
+    private OrderService orderService;
+    private OrderStatusService orderStatusService;
+    private OrderArchiveService orderArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        // Records what would be published to the other instances
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("orderCacheTier", new OrderCacheTier() {
+            @Override
+            public void publishEviction(Long orderId, Long customerId) {
+                publishedEvictions.add(orderId + ":" + customerId);
+            }
+
+            @Override
+            public void onRemoteEviction(BiConsumer<Long, Long> listener) {
+                remoteEvictionListener = listener;
+            }
+        });
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                beanFactory.getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OrderOutbox orderOutbox = new OrderOutbox(orderOutboxRepository, objectMapper);
+        orderArchiveService = new OrderArchiveService(orderRepository, archivedOrderRepository, orderCache,
+                transactionTemplate, objectMapper);
+        ReflectionTestUtils.setField(orderArchiveService, "enabled", true);
+        ReflectionTestUtils.setField(orderArchiveService, "afterMonths", 12);
+        ReflectionTestUtils.setField(orderArchiveService, "batchSize", 10);
+        // Updates below keep their lines, so inventory and tracing are never called
+        orderService = new OrderService(orderRepository, null, null, null, orderOutbox, transactionTemplate,
+                orderCache, new TimeOrderedOrderNumberGenerator(1), orderArchiveService);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 500);
+        orderStatusService = new OrderStatusService(orderRepository, orderOutbox, orderCache, transactionTemplate);
+        ReflectionTestUtils.setField(orderStatusService, "batchSize", 10);
+    }
+
+    @Test
+    void readsAreServedFromTheCacheUntilEvicted() {
+        Order order = order(7L, OrderStatus.PENDING, LocalDateTime.now());
+        Order cached = cachedOrder(order.getId());
+        OrderPageResponse cachedPage = cachedFirstPage(7L);
+
+        // Written around the services, so nothing is evicted
+        orderRepository.transitionStatus(List.of(order.getId()), List.of(OrderStatus.PENDING), OrderStatus.CONFIRMED);
+
+        assertSame(cached, cachedOrder(order.getId()));
+        assertSame(cachedPage, cachedFirstPage(7L));
+        assertEquals(OrderStatus.PENDING, cachedOrder(order.getId()).getStatus());
+    }
+
+    @Test
+    void updateOrderEvictsTheOrderAndBothCustomersFirstPages() {
+        Order order = order(7L, OrderStatus.PENDING, LocalDateTime.now());
+        Order cached = cachedOrder(order.getId());
+        OrderPageResponse previousCustomerPage = cachedFirstPage(7L);
+        OrderPageResponse newCustomerPage = cachedFirstPage(8L);
+
+        orderService.updateOrder(order.getId(), new OrderRequest(8L,
+                List.of(new OrderLineItemsDto(null, "book-1", BigDecimal.TEN, 1))));
+
+        Order updated = cachedOrder(order.getId());
+        assertNotSame(cached, updated);
+        assertEquals(8L, updated.getCustomerId());
+        assertNotSame(previousCustomerPage, cachedFirstPage(7L));
+        assertEquals(List.of(), orderIds(cachedFirstPage(7L)));
+        assertNotSame(newCustomerPage, cachedFirstPage(8L));
+        assertEquals(List.of(order.getId()), orderIds(cachedFirstPage(8L)));
+        assertEquals(List.of(order.getId() + ":7", "null:8"), publishedEvictions);
+    }
+
+    @Test
+    void statusTransitionsEvictTheirOrdersAndCustomerPages() {
+        Order first = order(7L, OrderStatus.CONFIRMED, LocalDateTime.now());
+        Order second = order(7L, OrderStatus.CONFIRMED, LocalDateTime.now());
+        Order cachedFirst = cachedOrder(first.getId());
+        Order cachedSecond = cachedOrder(second.getId());
+        OrderPageResponse cachedPage = cachedFirstPage(7L);
+
+        orderStatusService.transition(first.getId(), OrderStatus.SHIPPED);
+        orderStatusService.transitionAll(List.of(second.getId()), OrderStatus.CANCELLED);
+
+        assertNotSame(cachedFirst, cachedOrder(first.getId()));
+        assertEquals(OrderStatus.SHIPPED, cachedOrder(first.getId()).getStatus());
+        assertNotSame(cachedSecond, cachedOrder(second.getId()));
+        assertEquals(OrderStatus.CANCELLED, cachedOrder(second.getId()).getStatus());
+        assertNotSame(cachedPage, cachedFirstPage(7L));
+        assertEquals(List.of(OrderStatus.CANCELLED, OrderStatus.SHIPPED),
+                cachedFirstPage(7L).getOrders().stream().map(Order::getStatus).toList());
+    }
+
+    @Test
+    void archivingEvictsTheOrderAndItsCustomerPage() {
+        Order archived = order(7L, OrderStatus.DELIVERED, LocalDateTime.now().minusMonths(18));
+        Order kept = order(7L, OrderStatus.SHIPPED, LocalDateTime.now().minusMonths(18));
+        Order cached = cachedOrder(archived.getId());
+        OrderPageResponse cachedPage = cachedFirstPage(7L);
+        assertEquals(List.of(kept.getId(), archived.getId()), orderIds(cachedPage));
+
+        orderArchiveService.archiveClosedOrders();
+
+        // Still found, now restored from the archive
+        Order restored = cachedOrder(archived.getId());
+        assertNotSame(cached, restored);
+        assertEquals(archived.getOrderNumber(), restored.getOrderNumber());
+        assertEquals(List.of(kept.getId()), orderIds(cachedFirstPage(7L)));
+    }
+
+    @Test
+    void evictionFromAnotherInstanceDropsTheLocalEntries() {
+        Order order = order(7L, OrderStatus.PENDING, LocalDateTime.now());
+        Order cached = cachedOrder(order.getId());
+        OrderPageResponse cachedPage = cachedFirstPage(7L);
+
+        remoteEvictionListener.accept(order.getId(), 7L);
+
+        assertNotSame(cached, cachedOrder(order.getId()));
+        assertNotSame(cachedPage, cachedFirstPage(7L));
+        // Not published again, the instance that changed the order already did
+        assertEquals(List.of(), publishedEvictions);
+    }
+
+    private Order cachedOrder(Long orderId) {
+        entityManager.flush();
+        entityManager.clear();
+        return orderService.getOrderById(orderId);
+    }
+
+    private OrderPageResponse cachedFirstPage(Long customerId) {
+        entityManager.flush();
+        entityManager.clear();
+        return orderService.getOrdersByCustomerId(customerId, null, PAGE_SIZE);
+    }
+
+    private List<Long> orderIds(OrderPageResponse page) {
+        return page.getOrders().stream().map(Order::getId).toList();
+    }
+
+    private Order order(Long customerId, OrderStatus status, LocalDateTime createdAt) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        lineItems.add(OrderLineItems.builder().skuCode("book-1").price(BigDecimal.TEN).quantity(1).build());
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(customerId)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .createdAt(createdAt)
+                .build());
+        entityManager.flush();
+        return order;
+    }
+}
@@ -0,0 +1,162 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.OrderPageResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderCursorTests {
+
+    private static final int PAGE_SIZE = 2;
+    private static final LocalDateTime TIE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                new DefaultListableBeanFactory().getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+        // Only the read paths are used
+        orderService = new OrderService(orderRepository, null, null, null, null,
+                new TransactionTemplate(transactionManager), orderCache, null, null);
+        ReflectionTestUtils.setField(orderService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 500);
+    }
+
+    @Test
+    void cursorSurvivesEncodingToTheNanosecond() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789), 42L);
+
+        assertEquals(cursor, OrderCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void tamperedCursorIsABadRequest() {
+        String notBase64 = "not a cursor!";
+        String noSeparator = Base64.getUrlEncoder().withoutPadding().encodeToString("2024-03-01T00:00".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : List.of(notBase64, noSeparator)) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> orderService.getOrders(token, PAGE_SIZE));
+            assertEquals("Invalid cursor: " + token, exception.getMessage());
+        }
+    }
+
+    @Test
+    void customerPagesRoundTripThroughTheCursor() {
+        // Six orders fill three pages exactly: the last one still has no next cursor
+        List<Order> orders = new ArrayList<>();
+        for (LocalDateTime createdAt : List.of(TIE, TIE, TIE, TIE.minusSeconds(1), TIE.minusMonths(1), TIE.minusMonths(3))) {
+            orders.add(order(7L, createdAt));
+        }
+        order(8L, TIE);
+
+        List<OrderPageResponse> pages = walkPages(cursor -> orderService.getOrdersByCustomerId(7L, cursor, PAGE_SIZE));
+
+        assertEquals(3, pages.size());
+        assertNull(pages.get(2).getNextCursor());
+        assertEquals(newestFirst(orders), orderIds(pages));
+    }
+
+    @Test
+    void orderPagesRoundTripThroughTheCursor() {
+        List<Order> orders = new ArrayList<>();
+        for (LocalDateTime createdAt : List.of(TIE, TIE, TIE.minusDays(1), TIE, TIE.minusMonths(2))) {
+            orders.add(order((long) orders.size(), createdAt));
+        }
+
+        List<OrderPageResponse> pages = walkPages(cursor -> orderService.getOrders(cursor, PAGE_SIZE));
+
+        assertEquals(List.of(2, 2, 1), pages.stream().map(page -> page.getOrders().size()).toList());
+        assertEquals(newestFirst(orders), orderIds(pages));
+    }
+
+    private List<OrderPageResponse> walkPages(Function<String, OrderPageResponse> pageAfter) {
+        List<OrderPageResponse> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            entityManager.clear();
+            OrderPageResponse page = pageAfter.apply(cursor);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private List<Long> orderIds(List<OrderPageResponse> pages) {
+        return pages.stream()
+                .flatMap(page -> page.getOrders().stream())
+                .map(Order::getId)
+                .toList();
+    }
+
+    private List<Long> newestFirst(List<Order> orders) {
+        return orders.stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+    }
+
+    private Order order(Long customerId, LocalDateTime createdAt) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        lineItems.add(OrderLineItems.builder().skuCode("book-1").price(BigDecimal.TEN).quantity(1).build());
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(customerId)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.TEN)
+                .status(OrderStatus.PENDING)
+                .createdAt(createdAt)
+                .build());
+        entityManager.flush();
+        return order;
+    }
+}
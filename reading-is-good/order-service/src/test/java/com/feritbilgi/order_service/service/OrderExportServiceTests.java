@@ -0,0 +1,153 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderExportServiceTests {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final LocalDateTime TIE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(orderRepository, transactionManager, objectMapper);
+        ReflectionTestUtils.setField(orderExportService, "chunkSize", CHUNK_SIZE);
+    }
+
+    @Test
+    void everyOrderIsWrittenOnceOldestFirstOneChunkAtATime() throws IOException {
+        // Chunk boundaries of two fall inside the three orders created at the same instant
+        List<Order> orders = new ArrayList<>();
+        for (LocalDateTime createdAt : List.of(TIE, TIE.minusMonths(1), TIE, TIE.plusSeconds(1), TIE)) {
+            orders.add(order((long) orders.size(), createdAt));
+        }
+        entityManager.clear();
+
+        ChunkCountingOutputStream output = new ChunkCountingOutputStream();
+        orderExportService.exportOrders(null, null, TIE.plusDays(1), output);
+
+        List<JsonNode> exported = lines(output);
+        assertEquals(oldestFirst(orders), exported.stream().map(line -> line.get("orderNumber").asText()).toList());
+        assertEquals(List.of(1, 1, 1, 1, 1), exported.stream().map(line -> line.get("orderLineItemsList").size()).toList());
+        assertEquals(3, output.chunks);
+    }
+
+    @Test
+    void exportKeepsToTheCustomerAndTheHalfOpenRange() throws IOException {
+        Order atFrom = order(7L, TIE);
+        order(7L, TIE.minusSeconds(1));
+        Order beforeTo = order(7L, TIE.plusMonths(1).minusSeconds(1));
+        order(7L, TIE.plusMonths(1));
+        order(8L, TIE.plusDays(1));
+        Order tiedWithFrom = order(7L, TIE);
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderExportService.exportOrders(7L, TIE, TIE.plusMonths(1), output);
+
+        assertEquals(oldestFirst(List.of(atFrom, tiedWithFrom, beforeTo)),
+                lines(output).stream().map(line -> line.get("orderNumber").asText()).toList());
+    }
+
+    @Test
+    void emptyRangeWritesNothing() throws IOException {
+        order(7L, TIE);
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderExportService.exportOrders(7L, TIE.plusDays(1), TIE.plusDays(2), output);
+
+        assertEquals(0, output.size());
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream output) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private List<String> oldestFirst(List<Order> orders) {
+        return orders.stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId))
+                .map(Order::getOrderNumber)
+                .toList();
+    }
+
+    private Order order(Long customerId, LocalDateTime createdAt) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        lineItems.add(OrderLineItems.builder().skuCode("book-1").price(BigDecimal.TEN).quantity(1).build());
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(customerId)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.TEN)
+                .status(OrderStatus.PENDING)
+                .createdAt(createdAt)
+                .build());
+        entityManager.flush();
+        return order;
+    }
+
+    // The export flushes once per chunk
+    private static class ChunkCountingOutputStream extends ByteArrayOutputStream {
+
+        private int chunks;
+
+        @Override
+        public void flush() {
+            chunks++;
+        }
+    }
+}
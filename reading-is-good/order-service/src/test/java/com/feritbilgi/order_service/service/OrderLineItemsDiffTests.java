@@ -0,0 +1,74 @@
+package com.feritbilgi.order_service.service;
+
+import com.feritbilgi.order_service.dto.OrderLineItemsDto;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderLineItemsDiffTests {
+
+    @Test
+    void changingOneLineTouchesOnlyThatLine() {
+        OrderLineItems kitap = line(1L, "kitap", 2);
+        OrderLineItems defter = line(2L, "defter", 1);
+        List<OrderLineItems> lines = new ArrayList<>(List.of(kitap, defter));
+
+        Map<String, Integer> delta = OrderLineItemsDiff.apply(lines,
+                List.of(dto("1", "kitap", 5), dto("2", "defter", 1)));
+
+        assertEquals(Map.of("kitap", 3), delta);
+        assertSame(kitap, lines.get(0));
+        assertSame(defter, lines.get(1));
+        assertEquals(5, kitap.getQuantity());
+    }
+
+    @Test
+    void removedAndAddedLinesGiveBackAndTakeStock() {
+        List<OrderLineItems> lines = new ArrayList<>(List.of(line(1L, "kitap", 2), line(2L, "defter", 1)));
+
+        Map<String, Integer> delta = OrderLineItemsDiff.apply(lines,
+                List.of(dto("1", "kitap", 2), dto(null, "kalem", 4)));
+
+        assertEquals(Map.of("defter", -1, "kalem", 4), delta);
+        assertEquals(List.of("kitap", "kalem"), lines.stream().map(OrderLineItems::getSkuCode).toList());
+        assertNull(lines.get(1).getId());
+    }
+
+    @Test
+    void basketSentAgainWithoutIdsKeepsItsRows() {
+        OrderLineItems kitap = line(1L, "kitap", 2);
+        List<OrderLineItems> lines = new ArrayList<>(List.of(kitap));
+
+        Map<String, Integer> delta = OrderLineItemsDiff.apply(lines, List.of(dto(null, "kitap", 2)));
+
+        assertTrue(delta.isEmpty());
+        assertSame(kitap, lines.get(0));
+    }
+
+    @Test
+    void changedSkuMovesTheWholeQuantity() {
+        List<OrderLineItems> lines = new ArrayList<>(List.of(line(1L, "kitap", 2)));
+
+        Map<String, Integer> delta = OrderLineItemsDiff.apply(lines, List.of(dto("1", "defter", 3)));
+
+        assertEquals(Map.of("kitap", -2, "defter", 3), delta);
+        assertEquals(1L, lines.get(0).getId());
+    }
+
+    private static OrderLineItems line(Long id, String skuCode, int quantity) {
+        return OrderLineItems.builder().id(id).skuCode(skuCode).quantity(quantity).price(BigDecimal.TEN).build();
+    }
+
+    private static OrderLineItemsDto dto(String id, String skuCode, int quantity) {
+        return new OrderLineItemsDto(id, skuCode, BigDecimal.TEN, quantity);
+    }
+}
@@ -0,0 +1,61 @@
+package com.feritbilgi.order_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UUID.randomUUID() against the time-ordered generator, single threaded and with 8 threads
+ * sharing one generator. Run the main method from the test classpath (not part of mvn test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderNumberGeneratorBenchmark {
+
+    private final OrderNumberGenerator uuid = new UuidOrderNumberGenerator();
+    private final OrderNumberGenerator timeOrdered = new TimeOrderedOrderNumberGenerator(1);
+
+    @Benchmark
+    public String uuid() {
+        return uuid.next();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidContended() {
+        return uuid.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String timeOrderedContended() {
+        return timeOrdered.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderNumberGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.feritbilgi.order_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNumberGeneratorTests {
+
+    private static final int THREADS = 8;
+    private static final int NUMBERS_PER_THREAD = 100_000;
+
+    @Test
+    void concurrentNumbersAreUniqueAndIncreasingPerThread() throws Exception {
+        TimeOrderedOrderNumberGenerator generator = new TimeOrderedOrderNumberGenerator(7);
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    List<String> numbers = new ArrayList<>(NUMBERS_PER_THREAD);
+                    for (int n = 0; n < NUMBERS_PER_THREAD; n++) {
+                        numbers.add(generator.next());
+                    }
+                    return numbers;
+                }, executor));
+            }
+
+            Set<String> all = new HashSet<>();
+            for (CompletableFuture<List<String>> future : futures) {
+                List<String> numbers = future.get();
+                for (int n = 1; n < numbers.size(); n++) {
+                    assertTrue(numbers.get(n).compareTo(numbers.get(n - 1)) > 0, "not increasing at " + n);
+                }
+                all.addAll(numbers);
+            }
+            assertEquals(THREADS * NUMBERS_PER_THREAD, all.size());
+        }
+    }
+
+    @Test
+    void clockGoingBackwardsDoesNotRepeatNumbers() {
+        AtomicLong millis = new AtomicLong(Instant.parse("2025-06-01T00:00:00Z").toEpochMilli());
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+        TimeOrderedOrderNumberGenerator generator = new TimeOrderedOrderNumberGenerator(1, clock);
+
+        String beforeJump = generator.next();
+        millis.addAndGet(-5_000);
+        String afterJump = generator.next();
+
+        assertTrue(afterJump.compareTo(beforeJump) > 0);
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        Clock fixed = Clock.fixed(Instant.parse("2025-06-01T00:00:00Z"), ZoneOffset.UTC);
+        TimeOrderedOrderNumberGenerator node1 = new TimeOrderedOrderNumberGenerator(1, fixed);
+        TimeOrderedOrderNumberGenerator node2 = new TimeOrderedOrderNumberGenerator(2, fixed);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertNotEquals(node1.next(), node2.next());
+        }
+    }
+}
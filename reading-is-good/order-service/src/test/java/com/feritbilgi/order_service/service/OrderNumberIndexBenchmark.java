@@ -0,0 +1,82 @@
+package com.feritbilgi.order_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 200k order numbers into a unique H2 index, random UUIDs against the
+ * time-ordered generator. OrderNumberGeneratorBenchmark measures the generators alone.
+ * Run the main method from the test classpath (not part of mvn test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OrderNumberIndexBenchmark {
+
+    private static final int INDEX_ROWS = 200_000;
+
+    @Param({"uuid", "time-ordered"})
+    public String generatorType;
+
+    private OrderNumberGenerator generator;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        generator = "uuid".equals(generatorType) ? new UuidOrderNumberGenerator() : new TimeOrderedOrderNumberGenerator(1);
+        connection = DriverManager.getConnection("jdbc:h2:mem:order_numbers", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table order_numbers (order_number varchar(36) primary key)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws SQLException {
+        connection.close(); // Last connection to the in-memory database drops it
+    }
+
+    @Benchmark
+    public void insertIntoIndex() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert into order_numbers values (?)")) {
+            for (int i = 1; i <= INDEX_ROWS; i++) {
+                insert.setString(1, generator.next());
+                insert.addBatch();
+                if (i % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderNumberIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
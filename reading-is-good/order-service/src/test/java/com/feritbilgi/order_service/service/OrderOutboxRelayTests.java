@@ -0,0 +1,309 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderOutboxEvent;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.model.OutboxEventType;
+import com.feritbilgi.order_service.model.OutboxStatus;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderOutboxRelayTests {
+
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(4);
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Inventory calls in the order they were made, e.g. "commit order-a"
+    private final List<String> sent = new ArrayList<>();
+    private final Map<String, Throwable> errorByOrderNumber = new HashMap<>();
+    private final List<List<Long>> dueWhileSending = new ArrayList<>();
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        InventoryClient inventoryClient = new InventoryClient(null) {
+            @Override
+            public Mono<String> commit(String orderNumber) {
+                return answer("commit", orderNumber);
+            }
+
+            @Override
+            public Mono<String> release(String orderNumber) {
+                return answer("release", orderNumber);
+            }
+        };
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        OrderOutbox orderOutbox = new OrderOutbox(orderOutboxRepository, new ObjectMapper().findAndRegisterModules());
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                new DefaultListableBeanFactory().getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+        OrderStatusService orderStatusService = new OrderStatusService(orderRepository, orderOutbox, orderCache, transactionTemplate);
+        ReflectionTestUtils.setField(orderStatusService, "batchSize", 10);
+
+        // Only inventory events are relayed below, log-service and the read model stay unset
+        relay = new OrderOutboxRelay(orderOutboxRepository, transactionTemplate, inventoryClient, null, null, null,
+                orderStatusService);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "concurrency", 4);
+        ReflectionTestUtils.setField(relay, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(relay, "lease", LEASE);
+        ReflectionTestUtils.setField(relay, "retryBackoff", RETRY_BACKOFF);
+        ReflectionTestUtils.setField(relay, "maxRetryBackoff", MAX_RETRY_BACKOFF);
+        ReflectionTestUtils.setField(relay, "retention", Duration.ofHours(24));
+    }
+
+    @Test
+    void eventsOfAnOrderAreSentInWriteOrder() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        // Saved first, so it has the lower id, but written later, e.g. by an instance with a lower id block
+        OrderOutboxEvent later = event("order-a", OutboxEventType.INVENTORY_COMMIT, written.plusSeconds(1));
+        OrderOutboxEvent earlier = event("order-a", OutboxEventType.INVENTORY_RELEASE, written);
+        OrderOutboxEvent other = event("order-b", OutboxEventType.INVENTORY_COMMIT, written);
+        assertTrue(later.getId() < earlier.getId());
+
+        relay.relay();
+
+        assertEquals(List.of("release order-a", "commit order-a"), sentFor("order-a"));
+        assertEquals(List.of("commit order-b"), sentFor("order-b"));
+        for (OrderOutboxEvent event : List.of(later, earlier, other)) {
+            assertEquals(OutboxStatus.SENT, reload(event).getStatus());
+        }
+    }
+
+    @Test
+    void laterEventsWaitWhileAnEarlierOneIsRetried() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        OrderOutboxEvent retried = event("order-a", OutboxEventType.INVENTORY_COMMIT, written, LocalDateTime.now().plusHours(1), 1);
+        OrderOutboxEvent waiting = event("order-a", OutboxEventType.INVENTORY_RELEASE, written.plusSeconds(1));
+        event("order-b", OutboxEventType.INVENTORY_COMMIT, written.plusSeconds(1));
+
+        relay.relay();
+
+        assertEquals(List.of("commit order-b"), sent);
+        assertEquals(OutboxStatus.PENDING, reload(waiting).getStatus());
+        assertEquals(0, reload(waiting).getAttempts());
+        assertEquals(1, reload(retried).getAttempts());
+    }
+
+    @Test
+    void failureStopsTheRestOfTheOrderAndBacksOff() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        OrderOutboxEvent failing = event("order-a", OutboxEventType.INVENTORY_COMMIT, written);
+        OrderOutboxEvent behind = event("order-a", OutboxEventType.INVENTORY_RELEASE, written.plusSeconds(1));
+        event("order-b", OutboxEventType.INVENTORY_COMMIT, written);
+        errorByOrderNumber.put("order-a", new IllegalStateException("inventory-service is not reachable"));
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relay();
+        LocalDateTime after = LocalDateTime.now();
+
+        assertEquals(List.of("commit order-a"), sentFor("order-a"));
+        assertEquals(List.of("commit order-b"), sentFor("order-b"));
+        OrderOutboxEvent retried = reload(failing);
+        assertEquals(OutboxStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("inventory-service is not reachable", retried.getLastError());
+        assertRetriedAfter(RETRY_BACKOFF, retried, before, after);
+        // Never tried: its lease is dropped, the failed event in front of it still holds it back
+        OrderOutboxEvent skipped = reload(behind);
+        assertEquals(OutboxStatus.PENDING, skipped.getStatus());
+        assertEquals(0, skipped.getAttempts());
+        assertFalse(skipped.getNextAttemptAt().isAfter(after));
+
+        errorByOrderNumber.clear();
+        relay.relay();
+
+        assertEquals(List.of("commit order-a"), sentFor("order-a"));
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheCap() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        OrderOutboxEvent first = event("order-a", OutboxEventType.INVENTORY_RELEASE, written, written, 0);
+        OrderOutboxEvent second = event("order-b", OutboxEventType.INVENTORY_RELEASE, written, written, 1);
+        OrderOutboxEvent fourth = event("order-c", OutboxEventType.INVENTORY_RELEASE, written, written, 3);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 10);
+        for (String orderNumber : List.of("order-a", "order-b", "order-c")) {
+            errorByOrderNumber.put(orderNumber, new IllegalStateException("inventory-service is not reachable"));
+        }
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relay();
+        LocalDateTime after = LocalDateTime.now();
+
+        // 1s, 2s, then 8s capped at 4s
+        assertRetriedAfter(RETRY_BACKOFF, reload(first), before, after);
+        assertRetriedAfter(RETRY_BACKOFF.multipliedBy(2), reload(second), before, after);
+        assertRetriedAfter(MAX_RETRY_BACKOFF, reload(fourth), before, after);
+        assertEquals(4, reload(fourth).getAttempts());
+    }
+
+    @Test
+    void claimedEventsAreLeasedAndAnExpiredLeaseIsTakenOver() {
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        // Claimed by a relay that is still sending it
+        OrderOutboxEvent leased = event("order-a", OutboxEventType.INVENTORY_COMMIT, written, LocalDateTime.now().plus(LEASE), 0);
+        // Claimed by a relay that died before it was sent
+        OrderOutboxEvent abandoned = event("order-b", OutboxEventType.INVENTORY_COMMIT, written, written.plus(LEASE), 0);
+
+        relay.relay();
+
+        assertEquals(List.of("commit order-b"), sent);
+        assertEquals(OutboxStatus.PENDING, reload(leased).getStatus());
+        assertEquals(OutboxStatus.SENT, reload(abandoned).getStatus());
+        // While it was sent, no other relay could claim it
+        assertEquals(List.of(List.of()), dueWhileSending);
+    }
+
+    @Test
+    void givingUpOnAStockCommitFailsTheOrder() {
+        Order exhausted = order();
+        Order conflicted = order();
+        Order released = order();
+        LocalDateTime written = LocalDateTime.now().minusMinutes(1);
+        OrderOutboxEvent lastAttempt = event(exhausted.getOrderNumber(), OutboxEventType.INVENTORY_COMMIT, written, written, MAX_ATTEMPTS - 1);
+        OrderOutboxEvent refused = event(conflicted.getOrderNumber(), OutboxEventType.INVENTORY_COMMIT, written);
+        OrderOutboxEvent releaseAttempt = event(released.getOrderNumber(), OutboxEventType.INVENTORY_RELEASE, written, written, MAX_ATTEMPTS - 1);
+        errorByOrderNumber.put(exhausted.getOrderNumber(), new IllegalStateException("inventory-service is not reachable"));
+        // The hold expired and its stock is gone, a retry cannot help
+        errorByOrderNumber.put(conflicted.getOrderNumber(), WebClientResponseException.create(409, "Conflict",
+                HttpHeaders.EMPTY, new byte[0], null));
+        errorByOrderNumber.put(released.getOrderNumber(), new IllegalStateException("inventory-service is not reachable"));
+
+        relay.relay();
+
+        for (OrderOutboxEvent event : List.of(lastAttempt, refused, releaseAttempt)) {
+            OrderOutboxEvent failed = reload(event);
+            assertEquals(OutboxStatus.FAILED, failed.getStatus());
+            assertNotNull(failed.getProcessedAt());
+        }
+        assertEquals(MAX_ATTEMPTS, reload(lastAttempt).getAttempts());
+        assertEquals(1, reload(refused).getAttempts());
+        assertEquals(OrderStatus.FAILED, orderRepository.findById(exhausted.getId()).orElseThrow().getStatus());
+        assertEquals(OrderStatus.FAILED, orderRepository.findById(conflicted.getId()).orElseThrow().getStatus());
+        // Only a failed stock commit fails the order
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(released.getId()).orElseThrow().getStatus());
+        assertTrue(pendingLogPayload(conflicted.getOrderNumber()).contains("INVENTORY_COMMIT"));
+    }
+
+    private Mono<String> answer(String call, String orderNumber) {
+        sent.add(call + " " + orderNumber);
+        dueWhileSending.add(orderOutboxRepository.findDueIds(OutboxStatus.PENDING, LocalDateTime.now(), Limit.of(100)));
+        Throwable error = errorByOrderNumber.get(orderNumber);
+        return error != null ? Mono.error(error) : Mono.just("ok");
+    }
+
+    private List<String> sentFor(String orderNumber) {
+        return sent.stream().filter(call -> call.endsWith(" " + orderNumber)).toList();
+    }
+
+    private void assertRetriedAfter(Duration backoff, OrderOutboxEvent event, LocalDateTime before, LocalDateTime after) {
+        assertFalse(event.getNextAttemptAt().isBefore(before.plus(backoff)), "retried too early: " + event.getNextAttemptAt());
+        assertFalse(event.getNextAttemptAt().isAfter(after.plus(backoff)), "retried too late: " + event.getNextAttemptAt());
+    }
+
+    private String pendingLogPayload(String orderNumber) {
+        return orderOutboxRepository.findAll().stream()
+                .filter(event -> event.getOrderNumber().equals(orderNumber))
+                .filter(event -> event.getEventType() == OutboxEventType.ORDER_LOG && event.getStatus() == OutboxStatus.PENDING)
+                .map(OrderOutboxEvent::getPayload)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private OrderOutboxEvent reload(OrderOutboxEvent event) {
+        entityManager.flush();
+        entityManager.clear();
+        return orderOutboxRepository.findById(event.getId()).orElseThrow();
+    }
+
+    private OrderOutboxEvent event(String orderNumber, OutboxEventType eventType, LocalDateTime createdAt) {
+        return event(orderNumber, eventType, createdAt, createdAt, 0);
+    }
+
+    private OrderOutboxEvent event(String orderNumber, OutboxEventType eventType, LocalDateTime createdAt,
+                                   LocalDateTime nextAttemptAt, int attempts) {
+        OrderOutboxEvent event = orderOutboxRepository.save(OrderOutboxEvent.builder()
+                .orderNumber(orderNumber)
+                .eventType(eventType)
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(nextAttemptAt)
+                .createdAt(createdAt)
+                .build());
+        entityManager.flush();
+        return event;
+    }
+
+    private Order order() {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        lineItems.add(OrderLineItems.builder().skuCode("book-1").price(BigDecimal.TEN).quantity(1).build());
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(7L)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.TEN)
+                .status(OrderStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+        return order;
+    }
+}
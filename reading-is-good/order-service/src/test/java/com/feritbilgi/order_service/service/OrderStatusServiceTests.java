@@ -0,0 +1,220 @@
+package com.feritbilgi.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.feritbilgi.order_service.dto.OrderStatusResponse;
+import com.feritbilgi.order_service.model.Order;
+import com.feritbilgi.order_service.model.OrderLineItems;
+import com.feritbilgi.order_service.model.OrderOutboxEvent;
+import com.feritbilgi.order_service.model.OrderStatus;
+import com.feritbilgi.order_service.model.OutboxEventType;
+import com.feritbilgi.order_service.repository.OrderOutboxRepository;
+import com.feritbilgi.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class OrderStatusServiceTests {
+
+    // Only the JPA slice; the application class scans com.feritbilgi and would pull in web clients and aspects
+    @Configuration
+    @EntityScan(basePackageClasses = Order.class)
+    @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void transitionMovesTheOrderAndQueuesItsEvents() {
+        Order order = order(OrderStatus.CONFIRMED);
+
+        OrderStatusResponse response = orderStatusService(orderRepository, 10).transition(order.getId(), OrderStatus.CANCELLED);
+        entityManager.clear();
+
+        assertEquals(List.of(order.getId()), response.getTransitionedOrderIds());
+        Order cancelled = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(OrderStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(1L, cancelled.getVersion());
+        assertEquals(List.of(OutboxEventType.INVENTORY_RELEASE, OutboxEventType.ORDER_SUMMARY), eventTypes(order.getOrderNumber()));
+    }
+
+    @Test
+    void transitionRejectsAMoveTheLifecycleDoesNotAllow() {
+        Order order = order(OrderStatus.SHIPPED);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderStatusService(orderRepository, 10).transition(order.getId(), OrderStatus.CANCELLED));
+        entityManager.clear();
+
+        assertEquals("Order " + order.getOrderNumber() + " cannot move from SHIPPED to CANCELLED", exception.getMessage());
+        assertEquals(OrderStatus.SHIPPED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        assertEquals(List.of(), eventTypes(order.getOrderNumber()));
+    }
+
+    @Test
+    void bulkTransitionReportsEveryIdAcrossChunks() {
+        Order first = order(OrderStatus.PENDING);
+        Order delivered = order(OrderStatus.DELIVERED);
+        Order second = order(OrderStatus.PENDING);
+        Order third = order(OrderStatus.PENDING);
+        long missingId = third.getId() + 1000;
+
+        // Batch size 2, so the five distinct ids are moved in three chunks
+        OrderStatusResponse response = orderStatusService(orderRepository, 2).transitionAll(
+                List.of(first.getId(), delivered.getId(), second.getId(), first.getId(), missingId, third.getId()),
+                OrderStatus.CONFIRMED);
+        entityManager.clear();
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), response.getTransitionedOrderIds());
+        assertEquals(List.of(delivered.getId(), missingId), new ArrayList<>(response.getRejectedOrderIds().keySet()));
+        assertEquals("Order not found with id: " + missingId, response.getRejectedOrderIds().get(missingId));
+        assertEquals(List.of(OutboxEventType.ORDER_SUMMARY), eventTypes(first.getOrderNumber()));
+        assertEquals(List.of(), eventTypes(delivered.getOrderNumber()));
+    }
+
+    @Test
+    void bulkTransitionMovesEachChunkWithOneUpdate() {
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(order(OrderStatus.PENDING).getId());
+        }
+        List<Integer> updateSizes = new ArrayList<>();
+        OrderRepository countingRepository = (OrderRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("transitionStatus")) {
+                        updateSizes.add(((Collection<?>) args[0]).size());
+                    }
+                    try {
+                        return method.invoke(orderRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        OrderStatusResponse response = orderStatusService(countingRepository, 2).transitionAll(orderIds, OrderStatus.CONFIRMED);
+        entityManager.clear();
+
+        assertEquals(orderIds, response.getTransitionedOrderIds());
+        assertEquals(List.of(2, 2, 1), updateSizes);
+        for (Long orderId : orderIds) {
+            Order confirmed = orderRepository.findById(orderId).orElseThrow();
+            assertEquals(OrderStatus.CONFIRMED, confirmed.getStatus());
+            assertEquals(1L, confirmed.getVersion());
+        }
+    }
+
+    @Test
+    void orderMovedByAConcurrentCallerGetsNoEventsFromThisCall() {
+        Order raced = order(OrderStatus.PENDING);
+        Order other = order(OrderStatus.PENDING);
+        // Cancelled right after this call has read the statuses. Done in the same transaction: the row lock
+        // keeps a real second caller out, the re-read must still not count the order as moved by this call
+        OrderRepository racingRepository = (OrderRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(orderRepository, args);
+                        if (method.getName().equals("findForUpdateByIdIn")) {
+                            orderRepository.transitionStatus(List.of(raced.getId()), List.of(OrderStatus.PENDING), OrderStatus.CANCELLED);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        OrderStatusResponse response = orderStatusService(racingRepository, 10).transitionAll(
+                List.of(raced.getId(), other.getId()), OrderStatus.CONFIRMED);
+        entityManager.clear();
+
+        assertEquals(List.of(other.getId()), response.getTransitionedOrderIds());
+        assertEquals("Order " + raced.getOrderNumber() + " was changed concurrently", response.getRejectedOrderIds().get(raced.getId()));
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(raced.getId()).orElseThrow().getStatus());
+        assertEquals(List.of(), eventTypes(raced.getOrderNumber()));
+        assertEquals(List.of(OutboxEventType.ORDER_SUMMARY), eventTypes(other.getOrderNumber()));
+    }
+
+    @Test
+    void editReadBeforeATransitionCannotOverwriteIt() {
+        Order order = order(OrderStatus.PENDING);
+        Order staleEdit = orderRepository.findById(order.getId()).orElseThrow();
+        entityManager.clear();
+
+        orderStatusService(orderRepository, 10).transition(order.getId(), OrderStatus.CANCELLED);
+        entityManager.clear();
+
+        staleEdit.setTotalAmount(BigDecimal.valueOf(99));
+        assertThrows(OptimisticLockingFailureException.class, () -> orderRepository.save(staleEdit));
+        entityManager.clear();
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    private OrderStatusService orderStatusService(OrderRepository repository, int batchSize) {
+        OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1),
+                new DefaultListableBeanFactory().getBeanProvider(OrderCacheTier.class), new SimpleMeterRegistry());
+        OrderStatusService orderStatusService = new OrderStatusService(repository,
+                new OrderOutbox(orderOutboxRepository, new ObjectMapper().findAndRegisterModules()), orderCache,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(orderStatusService, "batchSize", batchSize);
+        return orderStatusService;
+    }
+
+    private Order order(OrderStatus status) {
+        List<OrderLineItems> lineItems = new ArrayList<>();
+        lineItems.add(OrderLineItems.builder().skuCode("book-1").price(BigDecimal.TEN).quantity(1).build());
+        Order order = orderRepository.save(Order.builder()
+                .orderNumber(UUID.randomUUID().toString())
+                .customerId(7L)
+                .orderLineItemsList(lineItems)
+                .totalAmount(BigDecimal.TEN)
+                .status(status)
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+        return order;
+    }
+
+    private List<OutboxEventType> eventTypes(String orderNumber) {
+        return orderOutboxRepository.findAll().stream()
+                .filter(event -> event.getOrderNumber().equals(orderNumber))
+                .sorted(Comparator.comparing(OrderOutboxEvent::getId))
+                .map(OrderOutboxEvent::getEventType)
+                .toList();
+    }
+}
@@ -9,6 +9,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -23,7 +24,8 @@ import java.time.LocalDateTime;
 public class LoggingAspect {
 
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    @Qualifier("logServiceWebClient")
+    private WebClient logServiceWebClient;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -114,9 +116,9 @@ public class LoggingAspect {
 
     private void sendToLogService(LogEvent logEvent) {
         try {
-            webClientBuilder.build()
+            logServiceWebClient
                     .post()
-                    .uri("http://log-service/api/logs")
+                    .uri("/api/logs")
                     .bodyValue(logEvent)
                     .retrieve()
                     .bodyToMono(String.class)
@@ -141,9 +143,9 @@ public class LoggingAspect {
                     .status("SENT")
                     .build();
 
-            webClientBuilder.build()
+            logServiceWebClient
                     .post()
-                    .uri("http://log-service/api/sms")
+                    .uri("/api/sms")
                     .bodyValue(smsEvent)
                     .retrieve()
                     .bodyToMono(String.class)
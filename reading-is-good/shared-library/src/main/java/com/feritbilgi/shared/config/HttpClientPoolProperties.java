@@ -0,0 +1,52 @@
+package com.feritbilgi.shared.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.Data;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings of one downstream service, bound from
+ * http.client.&lt;name&gt;.* properties. Each downstream gets its own pool, so a slow
+ * service cannot take the connections of the others.
+ */
+@Data
+public class HttpClientPoolProperties {
+
+    private int maxConnections = 200;
+    private int pendingAcquireMaxCount = 1000;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(10);
+    private boolean keepAlive = true;
+
+    /**
+     * Builds the connector once at startup. Pool metrics are published as
+     * reactor.netty.connection.provider.* (active, idle, pending, total connections)
+     * tagged with the given name.
+     */
+    public ReactorClientHttpConnector createConnector(String name) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(keepAlive)
+                .option(ChannelOption.SO_KEEPALIVE, keepAlive)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
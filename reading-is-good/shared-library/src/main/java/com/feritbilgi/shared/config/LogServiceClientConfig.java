@@ -0,0 +1,25 @@
+package com.feritbilgi.shared.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class LogServiceClientConfig {
+
+    @Bean
+    @ConfigurationProperties("http.client.log-service")
+    public HttpClientPoolProperties logServiceClientPool() {
+        return new HttpClientPoolProperties();
+    }
+
+    // Built once from the load balanced builder of the service, so http://log-service is resolved via Eureka
+    @Bean
+    public WebClient logServiceWebClient(WebClient.Builder webClientBuilder, HttpClientPoolProperties logServiceClientPool) {
+        return webClientBuilder.clone()
+                .baseUrl("http://log-service")
+                .clientConnector(logServiceClientPool.createConnector("log-service"))
+                .build();
+    }
+}
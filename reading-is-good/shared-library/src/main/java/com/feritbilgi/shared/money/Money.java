@@ -0,0 +1,37 @@
+package com.feritbilgi.shared.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money for hot aggregation paths. Amounts are carried as a plain long of minor
+ * units (kuruş, scale 2), so multiplying and summing allocate nothing; BigDecimal is only
+ * converted from and to at the API boundary. Overflow throws instead of wrapping.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    // Rounded like the DECIMAL(.., 2) columns the amounts are stored in
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long lineTotal(long unitPriceMinorUnits, int quantity) {
+        return Math.multiplyExact(unitPriceMinorUnits, quantity);
+    }
+
+    public static long add(long minorUnits, long otherMinorUnits) {
+        return Math.addExact(minorUnits, otherMinorUnits);
+    }
+}
@@ -1,5 +1,7 @@
 package com.feritbilgi.statistics_service.config;
 
+import com.feritbilgi.shared.config.HttpClientPoolProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,4 +15,19 @@ public class WebClientConfig {
     public WebClient.Builder loadBalancedWebClientBuilder() {
         return WebClient.builder();
     }
+
+    @Bean
+    @ConfigurationProperties("http.client.order")
+    public HttpClientPoolProperties orderClientPool() {
+        return new HttpClientPoolProperties();
+    }
+
+    // One client for all order-service calls; clone() keeps the load balancer filter of the builder
+    @Bean
+    public WebClient orderWebClient(WebClient.Builder loadBalancedWebClientBuilder, HttpClientPoolProperties orderClientPool) {
+        return loadBalancedWebClientBuilder.clone()
+                .baseUrl("http://order-service")
+                .clientConnector(orderClientPool.createConnector("order-service"))
+                .build();
+    }
 }
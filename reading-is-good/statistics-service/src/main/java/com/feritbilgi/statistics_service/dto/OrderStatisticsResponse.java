@@ -6,17 +6,15 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class OrderResponse {
-    private Long id;
-    private String orderNumber;
+public class OrderStatisticsResponse {
     private Long customerId;
-    private List<OrderLineItemResponse> orderLineItemsList;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long orderCount;
+    private long bookCount;
     private BigDecimal totalAmount;
-    private String status;
-    private LocalDateTime createdAt;
 }
@@ -1,7 +1,7 @@
 package com.feritbilgi.statistics_service.service;
 
 import com.feritbilgi.statistics_service.dto.MonthlyStatisticsResponse;
-import com.feritbilgi.statistics_service.dto.OrderResponse;
+import com.feritbilgi.statistics_service.dto.OrderStatisticsResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,16 +10,14 @@ import org.springframework.web.reactive.function.client.WebClient;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.TextStyle;
-import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StatisticsService {
     
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient orderWebClient;
     
     /**
      * Calculate monthly statistics for a customer
@@ -27,37 +25,38 @@ public class StatisticsService {
     public MonthlyStatisticsResponse getMonthlyStatistics(Long customerId, String jwtToken) {
         log.info("Calculating monthly statistics for customer: {}", customerId);
         
-        // Get all orders for the customer
-        List<OrderResponse> orders = getCustomerOrders(customerId, jwtToken);
+        // order-service adds the orders up on its reporting indexes, only the totals travel
+        OrderStatisticsResponse totals;
+        try {
+            totals = fetchCustomerTotals(customerId, jwtToken);
+        } catch (Exception e) {
+            log.error("Error fetching order statistics from order-service: {}", e.getMessage());
+            totals = null; // Empty statistics on error
+        }
         
-        // Group orders by month and calculate statistics
-        return calculateMonthlyStats(orders);
+        return calculateMonthlyStats(totals);
     }
     
     /**
-     * Fetch customer orders from order-service
+     * Order count, book count and amount of the customer from order-service
      */
-    private List<OrderResponse> getCustomerOrders(Long customerId, String jwtToken) {
-        try {
-            return webClientBuilder.build()
-                    .get()
-                    .uri("http://order-service/api/order/customer/my-orders")
-                    .header("Authorization", "Bearer " + jwtToken)
-                    .retrieve()
-                    .bodyToFlux(OrderResponse.class)
-                    .collectList()
-                    .block();
-        } catch (Exception e) {
-            log.error("Error fetching orders from order-service: {}", e.getMessage());
-            return List.of(); // Return empty list on error
-        }
+    private OrderStatisticsResponse fetchCustomerTotals(Long customerId, String jwtToken) {
+        return orderWebClient
+                .get()
+                .uri(uriBuilder -> uriBuilder.path("/api/order/statistics")
+                        .queryParam("customerId", customerId)
+                        .build())
+                .header("Authorization", "Bearer " + jwtToken)
+                .retrieve()
+                .bodyToMono(OrderStatisticsResponse.class)
+                .block();
     }
     
     /**
-     * Calculate monthly statistics from orders
+     * Calculate monthly statistics from order totals
      */
-    private MonthlyStatisticsResponse calculateMonthlyStats(List<OrderResponse> orders) {
-        if (orders == null || orders.isEmpty()) {
+    private MonthlyStatisticsResponse calculateMonthlyStats(OrderStatisticsResponse totals) {
+        if (totals == null || totals.getOrderCount() == 0) {
             return MonthlyStatisticsResponse.builder()
                     .month("No Data")
                     .totalOrderCount(0L)
@@ -69,21 +68,11 @@ public class StatisticsService {
         // Get current month
         String currentMonth = LocalDateTime.now().getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
         
-        // Calculate totals
-        long totalOrderCount = orders.size();
-        long totalBookCount = orders.stream()
-                .flatMapToInt(order -> order.getOrderLineItemsList().stream()
-                        .mapToInt(item -> item.getQuantity()))
-                .sum();
-        BigDecimal totalAmount = orders.stream()
-                .map(OrderResponse::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
         return MonthlyStatisticsResponse.builder()
                 .month(currentMonth)
-                .totalOrderCount(totalOrderCount)
-                .totalBookCount(totalBookCount)
-                .totalPurchasedAmount(totalAmount)
+                .totalOrderCount(totals.getOrderCount())
+                .totalBookCount(totals.getBookCount())
+                .totalPurchasedAmount(totals.getTotalAmount())
                 .build();
     }
 }